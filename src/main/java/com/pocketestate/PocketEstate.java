@@ -4,13 +4,16 @@ import com.pocketestate.command.EstateCommand;
 import com.pocketestate.data.DataManager;
 import com.pocketestate.data.EstateManager;
 import com.pocketestate.economy.EconomyIntegration;
+import com.pocketestate.farm.CropReadyEvents;
+import com.pocketestate.farm.EstateClock;
+import com.pocketestate.farm.EstateTickScheduler;
 import com.pocketestate.farm.VirtualCropManager;
-import com.pocketestate.farm.VirtualMobManager;
 import com.pocketestate.registry.ModItems;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
 import net.minecraft.resources.Identifier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,11 +37,35 @@ public class PocketEstate implements ModInitializer {
     
     // Manager instances
     public static DataManager dataManager;
+    private static EstateTickScheduler estateScheduler;
+    
+    // Clock estates are simulated against: the server's, unless one was injected
+    private static EstateClock serverClock = EstateClock.STOPPED;
+    private static EstateClock injectedClock;
     
     // Tick counter for periodic processing
     private static long tickCounter = 0;
-    private static final int PRODUCTION_INTERVAL = 1200; // 1 minute (60 seconds * 20 ticks)
-    private static final int CROP_GROWTH_INTERVAL = 200;  // 10 seconds
+    private static final int EVICTION_INTERVAL = 1200;    // 1 minute
+    
+    /**
+     * Current time of the estate clock (normally the overworld game time),
+     * which crop growth, compost, pens and autosave are measured against
+     */
+    public static long getGameTime() {
+        return getClock().now();
+    }
+    
+    public static EstateClock getClock() {
+        return injectedClock != null ? injectedClock : serverClock;
+    }
+    
+    /**
+     * Simulate estates against another clock, e.g. a {@link com.pocketestate.farm.ManualEstateClock}
+     * in tests or load tools; null goes back to the server's game time
+     */
+    public static void setClock(EstateClock clock) {
+        injectedClock = clock;
+    }
     
     /**
      * Create an Identifier for this mod
@@ -62,41 +89,66 @@ public class PocketEstate implements ModInitializer {
             EstateCommand.register(dispatcher);
         });
         
+        // Tell players when their crops ripen
+        CropReadyEvents.subscribe(VirtualCropManager::notifyOwner);
+        
         // Server lifecycle events
         ServerLifecycleEvents.SERVER_STARTED.register(server -> {
+            serverClock = EstateClock.server(server);
+            VirtualCropManager.reset();
+            estateScheduler = new EstateTickScheduler();
             dataManager = new DataManager(server);
             dataManager.load();
             LOGGER.info("Pocket Estate data loaded!");
         });
         
         ServerLifecycleEvents.SERVER_STOPPING.register(server -> {
+            if (estateScheduler != null) {
+                estateScheduler.shutdown();
+            }
             if (dataManager != null) {
-                dataManager.save();
+                dataManager.shutdown();
                 LOGGER.info("Pocket Estate data saved!");
             }
         });
         
-        // Auto-save every 5 minutes
+        // Load estates as players join; start their idle timeout when they leave
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            if (dataManager != null) {
+                dataManager.onPlayerJoin(handler.getPlayer().getUUID());
+            }
+        });
+        
+        ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
+            if (dataManager != null) {
+                dataManager.onPlayerLeave(handler.getPlayer().getUUID());
+            }
+        });
+        
+        // Periodic processing and auto-save
         ServerLifecycleEvents.SERVER_STARTED.register(server -> {
             ServerTickEvents.END_SERVER_TICK.register(s -> {
                 tickCounter++;
                 
-                // Process crop growth
-                if (tickCounter % CROP_GROWTH_INTERVAL == 0) {
-                    VirtualCropManager.processCropGrowth(s);
-                }
+                // Ready crops and pen production, spread across ticks by player
+                estateScheduler.tick(s);
                 
-                // Process mob production
-                if (tickCounter % PRODUCTION_INTERVAL == 0) {
-                    VirtualMobManager.processProduction(s);
+                // Auto-save when enough has changed or changes get old
+                if (dataManager != null) {
+                    dataManager.getAutosaveScheduler().tick(s);
                 }
                 
-                // Auto-save every 5 minutes (6000 ticks)
-                if (tickCounter % 6000 == 0) {
+                // Unload offline estates that are idle or over the cache size
+                if (tickCounter % EVICTION_INTERVAL == 0) {
                     if (dataManager != null) {
-                        dataManager.save();
+                        dataManager.evictIdleEstates();
                     }
                 }
+                
+                // Group-commit this tick's journal records
+                if (dataManager != null) {
+                    dataManager.commitJournal();
+                }
             });
         });
         
@@ -5,7 +5,10 @@ import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.pocketestate.PocketEstate;
 import com.pocketestate.config.SellPrices;
 import com.pocketestate.currency.CurrencyManager;
+import com.pocketestate.data.AutosaveScheduler;
+import com.pocketestate.data.DataManager;
 import com.pocketestate.data.EstateManager;
+import com.pocketestate.data.PlayerData;
 import com.pocketestate.economy.EconomyIntegration;
 import com.pocketestate.gui.EstateGui;
 import com.pocketestate.gui.SellGui;
@@ -29,6 +32,7 @@ import java.util.List;
  * /estate sellall - Quick sell all resources
  * /estate addmoney <amount> - (OP) Adds money to player
  * /estate stats - Shows estate statistics
+ * /estate savestatus - (OP) Shows auto-save status
  */
 public class EstateCommand {
     
@@ -90,8 +94,8 @@ public class EstateCommand {
                         return 0;
                     }
                     
-                    List<ItemStack> buffer = PocketEstate.dataManager
-                        .getPlayerData(player.getUUID()).getOutputBuffer();
+                    PlayerData data = PocketEstate.dataManager.getPlayerData(player.getUUID());
+                    List<ItemStack> buffer = data.getOutputBuffer();
                     
                     if (buffer.isEmpty()) {
                         player.sendSystemMessage(Component.literal("§c§l[SELL] §rNo resources to sell!"));
@@ -109,7 +113,7 @@ public class EstateCommand {
                     
                     if (totalValue > 0) {
                         EconomyIntegration.addBalance(player.getUUID(), totalValue);
-                        buffer.clear();
+                        data.clearOutput();
                         
                         player.sendSystemMessage(Component.literal("§a§l[SELL] §rSold §e" + 
                             totalItems + " items§r for §a" + CurrencyManager.format(totalValue) + "§r!"));
@@ -189,6 +193,39 @@ public class EstateCommand {
                 )
             )
             
+            // /estate savestatus - Show auto-save decisions (requires OP)
+            .then(Commands.literal("savestatus")
+                .executes(context -> {
+                    ServerPlayer player = context.getSource().getPlayerOrException();
+                    
+                    if (!isPlayerOp(context.getSource(), player)) {
+                        player.sendSystemMessage(Component.literal(
+                            "§c§l[ESTATE] §rYou need to be an operator to use this command!"));
+                        return 0;
+                    }
+                    if (PocketEstate.dataManager == null) {
+                        player.sendSystemMessage(Component.literal("§c§l[ESTATE] §rData not loaded!"));
+                        return 0;
+                    }
+                    
+                    DataManager dataManager = PocketEstate.dataManager;
+                    AutosaveScheduler autosave = dataManager.getAutosaveScheduler();
+                    player.sendSystemMessage(Component.literal("§6§l=== Pocket Estate Saves ==="));
+                    player.sendSystemMessage(Component.literal("§7Loaded estates: §e" + dataManager.getLoadedEstateCount()
+                        + " §7(§e" + dataManager.countDirtyEstates() + "§7 unsaved)"));
+                    player.sendSystemMessage(Component.literal("§7Last decision: §f" + autosave.getLastDecision()));
+                    player.sendSystemMessage(Component.literal("§7Auto-saves started: §e" + autosave.getSavesStarted()
+                        + "§7, deferred: §e" + autosave.getSavesDeferred()));
+                    player.sendSystemMessage(Component.literal("§7Last save: §e" + dataManager.getLastSaveWritten()
+                        + "§7 written, §e" + dataManager.getLastSaveSkipped() + "§7 unchanged"));
+                    player.sendSystemMessage(Component.literal(String.format("§7Average tick: §e%.1f ms",
+                        context.getSource().getServer().getAverageTickTimeNanos() / 1_000_000.0)));
+                    player.sendSystemMessage(Component.literal("§6§l==========================="));
+                    
+                    return 1;
+                })
+            )
+            
             // /estate help - Show help
             .then(Commands.literal("help")
                 .executes(context -> {
@@ -206,6 +243,7 @@ public class EstateCommand {
                     player.sendSystemMessage(Component.literal("§8Admin commands:"));
                     player.sendSystemMessage(Component.literal("§7/estate addmoney <amount>"));
                     player.sendSystemMessage(Component.literal("§7/estate setmoney <amount>"));
+                    player.sendSystemMessage(Component.literal("§7/estate savestatus"));
                     player.sendSystemMessage(Component.literal("§6§l=========================="));
                     
                     return 1;
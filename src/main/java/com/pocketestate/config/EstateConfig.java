@@ -13,6 +13,15 @@ public class EstateConfig {
     /** Base time for crops to grow one stage (in ticks) */
     public static int CROP_GROWTH_INTERVAL = 200; // 10 seconds
     
+    /** Most offline time credited to an estate when its owner returns (in ticks) */
+    public static long MAX_OFFLINE_CATCHUP = 72000; // 1 hour
+    
+    /** Number of crop plots an estate can unlock (9 per page); applies to estates loaded afterwards */
+    public static int MAX_CROP_PLOTS = 180; // 20 pages
+    
+    /** Store crop fields as runs of identical plots; use for estates with thousands of plots */
+    public static boolean RUN_LENGTH_FIELDS = false;
+    
     /** Maximum number of crop plots */
     public static int MAX_CROP_SLOTS = 9;
     
@@ -66,9 +75,59 @@ public class EstateConfig {
     
     // ===== AUTO-SAVE SETTINGS =====
     
-    /** Auto-save interval (in ticks) */
+    /** Longest time unsaved changes wait before an auto-save (in ticks) */
     public static int AUTO_SAVE_INTERVAL = 6000; // 5 minutes
     
+    /** Start an auto-save early once this many estates have unsaved changes */
+    public static int SAVE_DIRTY_THRESHOLD = 50;
+    
+    /** Defer auto-saves while the average tick time is at or above this (ms) */
+    public static double SAVE_DEFER_MSPT = 45.0;
+    
+    /** Never defer an auto-save for longer than this (in ticks) */
+    public static int SAVE_MAX_DEFER = 1200; // 1 minute
+    
+    /** Estates copied or written per tick while an auto-save is running */
+    public static int SAVE_ESTATES_PER_TICK = 25;
+    
+    /** Encode and write estates on a background thread instead of the server thread */
+    public static boolean ASYNC_SAVE = true;
+    
+    /** Journal purchases, sales and harvests between saves so a crash does not lose them */
+    public static boolean ENABLE_JOURNAL = true;
+    
+    /** Write estate shards in the compact binary format (false = gzip NBT; both are always readable) */
+    public static boolean BINARY_SHARDS = true;
+    
+    /** Offline estates kept in memory; beyond this the least recently used are written back and unloaded */
+    public static int OFFLINE_ESTATE_CACHE_SIZE = 200;
+    
+    /** Unload an offline estate after this many ticks without being accessed */
+    public static int OFFLINE_ESTATE_IDLE_TIMEOUT = 36000; // 30 minutes
+    
+    /** Worker threads for decoding estates in bulk at startup (0 = one per CPU core) */
+    public static int LOAD_THREADS = 0;
+    
+    // ===== ESTATE PROCESSING =====
+    
+    /** Time budget per tick for ready-crop handling and pen production (microseconds); leftover work waits a tick */
+    public static int ESTATE_TICK_BUDGET_MICROS = 2000; // 2 ms
+    
+    /** Simulate due estates on worker threads, then apply XP, sounds and money on the server thread */
+    public static boolean PARALLEL_SIMULATION = false;
+    
+    /** Worker threads for parallel simulation (0 = one per CPU core) */
+    public static int SIMULATION_THREADS = 0;
+    
+    /** Update estates of AFK players less often, catching up the elapsed time on each update */
+    public static boolean ADAPTIVE_FIDELITY = true;
+    
+    /** Time without player actions (moving, clicking, chatting) after which an online player counts as AFK (in ticks) */
+    public static int IDLE_TIMEOUT = 6000; // 5 minutes
+    
+    /** How often idle estates are updated (in ticks) */
+    public static int IDLE_UPDATE_INTERVAL = 6000; // 5 minutes
+    
     // ===== INTEGRATION SETTINGS =====
     
     /** Whether to use external economy (like your shop mod) */
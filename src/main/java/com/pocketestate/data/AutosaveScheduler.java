@@ -0,0 +1,111 @@
+package com.pocketestate.data;
+
+import com.pocketestate.PocketEstate;
+import com.pocketestate.config.EstateConfig;
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * Decides when to auto-save instead of saving on a fixed timer
+ *
+ * A save starts once enough estates are dirty, or once the oldest
+ * unsaved change reaches the maximum age. Saves are deferred while the
+ * server's average tick time is close to the 50 ms budget (up to a
+ * limit), and a started save is spread over several ticks. Ages are
+ * measured on the estate clock, so fast-forwarding it also ages
+ * unsaved changes.
+ *
+ * The most recent decision is kept for /estate savestatus and logged at debug level.
+ */
+public class AutosaveScheduler {
+    // How often to count dirty estates (in ticks)
+    private static final int CHECK_INTERVAL = 20;
+
+    private final DataManager dataManager;
+
+    private long ticks = 0;
+    private long dirtySinceTick = -1;    // Estate clock time of the first check that saw unsaved changes
+    private long deferredSinceTick = -1; // Estate clock time of the first deferral of the pending save
+    private int lastDirtyCount = 0;
+    private double lastMspt = 0;
+    private long savesStarted = 0;
+    private long savesDeferred = 0;
+    private String lastDecision = "No auto-save yet";
+
+    public AutosaveScheduler(DataManager dataManager) {
+        this.dataManager = dataManager;
+    }
+
+    /**
+     * Called every server tick
+     */
+    public void tick(MinecraftServer server) {
+        ticks++;
+
+        if (dataManager.isSaveInProgress()) {
+            continueSave();
+            return;
+        }
+        if (ticks % CHECK_INTERVAL != 0) return;
+
+        int dirty = dataManager.countDirtyEstates();
+        lastDirtyCount = dirty;
+        if (dirty == 0) {
+            dirtySinceTick = -1;
+            deferredSinceTick = -1;
+            return;
+        }
+        long now = PocketEstate.getGameTime();
+        if (dirtySinceTick < 0) dirtySinceTick = now;
+
+        long age = now - dirtySinceTick;
+        String reason;
+        if (dirty >= EstateConfig.SAVE_DIRTY_THRESHOLD) {
+            reason = dirty + " dirty estates (threshold " + EstateConfig.SAVE_DIRTY_THRESHOLD + ")";
+        } else if (age >= EstateConfig.AUTO_SAVE_INTERVAL) {
+            reason = dirty + " dirty estates, oldest change " + (age / 20) + "s old";
+        } else {
+            return;
+        }
+
+        lastMspt = server.getAverageTickTimeNanos() / 1_000_000.0;
+        if (lastMspt >= EstateConfig.SAVE_DEFER_MSPT) {
+            if (deferredSinceTick < 0) deferredSinceTick = now;
+            if (now - deferredSinceTick < EstateConfig.SAVE_MAX_DEFER) {
+                savesDeferred++;
+                decide("Deferred auto-save (" + reason + "): average tick " + formatMspt(lastMspt) + " ms");
+                return;
+            }
+            reason += ", deferral limit reached";
+        }
+
+        deferredSinceTick = -1;
+        dirtySinceTick = -1;
+        if (dataManager.beginSave()) {
+            savesStarted++;
+            decide("Started auto-save: " + reason);
+            continueSave();
+        }
+    }
+
+    private void continueSave() {
+        if (dataManager.continueSave(EstateConfig.SAVE_ESTATES_PER_TICK)) {
+            decide("Auto-save finished: " + dataManager.getLastSaveWritten() + " written, "
+                + dataManager.getLastSaveSkipped() + " unchanged");
+        }
+    }
+
+    private void decide(String decision) {
+        lastDecision = decision;
+        PocketEstate.LOGGER.debug("[Autosave] " + decision);
+    }
+
+    private static String formatMspt(double mspt) {
+        return String.format("%.1f", mspt);
+    }
+
+    public String getLastDecision() { return lastDecision; }
+    public int getLastDirtyCount() { return lastDirtyCount; }
+    public double getLastMspt() { return lastMspt; }
+    public long getSavesStarted() { return savesStarted; }
+    public long getSavesDeferred() { return savesDeferred; }
+}
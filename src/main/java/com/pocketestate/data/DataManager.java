@@ -1,45 +1,249 @@
 package com.pocketestate.data;
 
 import com.pocketestate.PocketEstate;
+import com.pocketestate.config.EstateConfig;
+import com.pocketestate.farm.OfflineCatchUp;
+import com.pocketestate.farm.VirtualCropManager;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
 import net.minecraft.nbt.NbtIo;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.world.level.storage.LevelResource;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.HashMap;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Manages all persistent data for Pocket Estate
- * Handles saving/loading player data to NBT files
+ * Handles saving/loading player data to per-player shard files
+ *
+ * Each estate is stored in its own shard file under
+ * <world>/pocketestate/players/<uuid>.dat so that a save only
+ * has to touch the estates it writes.
+ *
+ * With async saving enabled the server thread only copies the changed
+ * estates; encoding and the file write happen on a
+ * single background thread, so writes to the same shard stay ordered.
+ *
+ * Between saves, mutations are also recorded in an {@link EstateJournal}
+ * which is replayed on load and trimmed after each completed save.
+ *
+ * Estates are loaded on demand (player join or first lookup) rather
+ * than all at startup. Online players' estates stay resident; offline
+ * ones are kept in an LRU and written back and unloaded once the cache
+ * is over capacity or they have been idle too long.
  */
 public class DataManager {
-    private static final String DATA_FILE = "pocketestate_data.dat";
-    
+    // Original single-file layout, migrated to shards on first load
+    private static final String LEGACY_DATA_FILE = "pocketestate_data.dat";
+    private static final String LEGACY_MIGRATED_SUFFIX = ".migrated";
+
+    private static final String DATA_DIR = "pocketestate";
+    private static final String PLAYERS_DIR = "players";
+    private static final String JOURNAL_DIR = "journal";
+    private static final String SHARD_EXTENSION = ".dat";
+    private static final String TEMP_EXTENSION = ".tmp";
+    private static final String CORRUPT_EXTENSION = ".corrupt";
+
     private final MinecraftServer server;
-    private final Map<UUID, PlayerData> playerDataMap = new HashMap<>();
-    
+    // Resident estates, least recently used first
+    private final LinkedHashMap<UUID, PlayerData> playerDataMap = new LinkedHashMap<>(16, 0.75f, true);
+    // Newest snapshot handed to the save thread per estate, until that write finishes.
+    // Reloads copy from here instead of the stale shard, whether the estate was evicted dirty or clean.
+    private final Map<UUID, PlayerData> queuedWrites = new ConcurrentHashMap<>();
+
+    // Save statistics (estates written / skipped because nothing changed)
+    private int lastSaveWritten = 0;
+    private int lastSaveSkipped = 0;
+    private long totalSkipped = 0;
+
+    // Save in progress, possibly spread over several ticks
+    private final ArrayDeque<QueuedSave> saveQueue = new ArrayDeque<>();
+    private boolean saveInProgress = false;
+    private boolean saveAsync;
+    private long saveCheckpoint = -1;
+    private int saveWritten = 0;
+    private int saveSkipped = 0;
+    private final AutosaveScheduler autosaveScheduler = new AutosaveScheduler(this);
+
+    // Background saving
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PocketEstate-Save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final List<CompletableFuture<Void>> pendingSaves = new ArrayList<>();
+    // Estates whose background write failed; re-marked dirty on the server thread
+    private final ConcurrentLinkedQueue<UUID> failedSaves = new ConcurrentLinkedQueue<>();
+    // Estates with no successful write since a failure; the journal is kept until this is empty
+    private final Set<UUID> unsavedEstates = ConcurrentHashMap.newKeySet();
+    // Estates whose unreadable shard could not be moved aside; never written over
+    private final Set<UUID> protectedShards = ConcurrentHashMap.newKeySet();
+
+    // Null until load() has replayed the existing journal
+    private EstateJournal journal;
+
+    /**
+     * A detached copy of an estate waiting to be written
+     */
+    private record PendingWrite(UUID playerId, PlayerData snapshot) {}
+
+    /**
+     * A live estate waiting for its turn in a save spread over several ticks
+     */
+    private record QueuedSave(UUID playerId, PlayerData data) {}
+
     public DataManager(MinecraftServer server) {
         this.server = server;
     }
-    
+
     /**
-     * Get or create player data
+     * Get player data, loading it from its shard (or creating it) if not resident
      */
     public PlayerData getPlayerData(UUID playerId) {
-        return playerDataMap.computeIfAbsent(playerId, k -> new PlayerData());
+        PlayerData data = playerDataMap.get(playerId);
+        if (data == null) {
+            data = loadEstate(playerId);
+            data.attach(playerId, journal);
+            playerDataMap.put(playerId, data);
+            VirtualCropManager.scheduleEstate(playerId, data);
+        }
+        data.touch(server.getTickCount());
+        return data;
+    }
+
+    private PlayerData loadEstate(UUID playerId) {
+        PlayerData pending = queuedWrites.get(playerId);
+        if (pending != null) {
+            // Its queued write already covers this state, so the copy starts clean
+            return pending.copy();
+        }
+        Path shard = getShardPath(playerId);
+        if (Files.exists(shard)) {
+            PlayerData data = readShard(shard, playerId);
+            if (data != null) return data;
+            setAsideCorruptShard(shard, playerId);
+        }
+        return new PlayerData();
+    }
+
+    /**
+     * Load a joining player's estate ahead of their first interaction
+     */
+    public void onPlayerJoin(UUID playerId) {
+        // The estate was not simulated while its owner was away; credit that once, here
+        PlayerData data = getPlayerData(playerId);
+        OfflineCatchUp.catchUp(data, PocketEstate.getGameTime());
+        data.setOwnerOnline(true);
+        data.markInteraction();
+        // Ready events are dropped while offline, so queue the estate again
+        VirtualCropManager.scheduleEstate(playerId, data);
+    }
+
+    /**
+     * Start the idle timeout for a player who just left
+     */
+    public void onPlayerLeave(UUID playerId) {
+        PlayerData data = playerDataMap.get(playerId);
+        if (data != null) {
+            data.touch(server.getTickCount());
+            data.setLastActiveTick(PocketEstate.getGameTime());
+            data.settleCompost(); // Offline time is credited, capped, on return
+            data.setOwnerOnline(false);
+            data.markDirty();
+        }
+    }
+
+    public int getLoadedEstateCount() {
+        return playerDataMap.size();
     }
-    
+
+    private boolean isOnline(UUID playerId) {
+        return server.getPlayerList().getPlayer(playerId) != null;
+    }
+
+    /**
+     * Write back and unload offline estates, least recently used first,
+     * while the offline cache is over capacity or an estate has been idle
+     * longer than the configured timeout
+     */
+    public void evictIdleEstates() {
+        requeueFailedSaves();
+        boolean async = EstateConfig.ASYNC_SAVE && !saveExecutor.isShutdown();
+        long now = server.getTickCount();
+
+        int offline = 0;
+        for (UUID playerId : playerDataMap.keySet()) {
+            if (!isOnline(playerId)) offline++;
+        }
+
+        int evicted = 0;
+        List<PendingWrite> batch = new ArrayList<>();
+        Iterator<Map.Entry<UUID, PlayerData>> it = playerDataMap.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<UUID, PlayerData> entry = it.next();
+            UUID playerId = entry.getKey();
+            PlayerData data = entry.getValue();
+            if (isOnline(playerId)) continue;
+
+            boolean overCapacity = offline > EstateConfig.OFFLINE_ESTATE_CACHE_SIZE;
+            boolean idle = now - data.getLastAccessTick() >= EstateConfig.OFFLINE_ESTATE_IDLE_TIMEOUT;
+            if (!overCapacity && !idle) continue;
+
+            if (data.isDirty()) {
+                if (async) {
+                    // Nothing else references an unloaded estate, so it is its own snapshot
+                    queuedWrites.put(playerId, data);
+                    batch.add(new PendingWrite(playerId, data));
+                    data.markSaved(data.getModCount());
+                } else if (!writeShard(playerId, data)) {
+                    continue; // Keep it resident until it can be written
+                }
+            }
+            // A clean estate may still have a save snapshot in flight; queuedWrites keeps it for reloads
+            it.remove();
+            offline--;
+            evicted++;
+        }
+
+        if (!batch.isEmpty()) {
+            pendingSaves.removeIf(CompletableFuture::isDone);
+            pendingSaves.add(CompletableFuture.runAsync(() -> writeBatch(batch), saveExecutor));
+        }
+        if (evicted > 0) {
+            PocketEstate.LOGGER.debug("Unloaded " + evicted + " offline estates (" + playerDataMap.size() + " still loaded)");
+        }
+    }
+
     /**
      * Get player balance
      */
     public long getBalance(UUID playerId) {
         return getPlayerData(playerId).getBalance();
     }
-    
+
     /**
      * Add/subtract from balance
      */
@@ -47,61 +251,510 @@ public class DataManager {
         PlayerData data = getPlayerData(playerId);
         data.setBalance(Math.max(0, data.getBalance() + amount));
     }
-    
+
+    /**
+     * Directory holding one shard file per estate
+     */
+    private Path getPlayersDirectory() {
+        return server.getWorldPath(LevelResource.ROOT)
+            .resolve(DATA_DIR)
+            .resolve(PLAYERS_DIR);
+    }
+
+    private Path getJournalDirectory() {
+        return server.getWorldPath(LevelResource.ROOT)
+            .resolve(DATA_DIR)
+            .resolve(JOURNAL_DIR);
+    }
+
+    private Path getShardPath(UUID playerId) {
+        return getPlayersDirectory().resolve(playerId + SHARD_EXTENSION);
+    }
+
     /**
-     * Save all data to disk
+     * Save all changed estates to disk.
+     * Estates whose data has not changed since their last save are skipped.
      */
     public void save() {
+        save(EstateConfig.ASYNC_SAVE && !saveExecutor.isShutdown());
+    }
+
+    private void save(boolean async) {
+        if (saveInProgress) {
+            continueSave(Integer.MAX_VALUE);
+        }
+        if (beginSave(async)) {
+            continueSave(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Start a save that can be spread over several ticks with {@link #continueSave}.
+     * Rolls the journal and queues every estate that is dirty right now.
+     * @return false if a save is already running or the data directory is unusable
+     */
+    public boolean beginSave() {
+        return beginSave(EstateConfig.ASYNC_SAVE && !saveExecutor.isShutdown());
+    }
+
+    private boolean beginSave(boolean async) {
+        if (saveInProgress) return false;
+        requeueFailedSaves();
         try {
-            File dataFile = server.getWorldPath(LevelResource.ROOT)
-                .resolve(DATA_FILE)
-                .toFile();
-            
-            CompoundTag rootTag = new CompoundTag();
-            
-            // Save player data
-            CompoundTag playersTag = new CompoundTag();
-            for (Map.Entry<UUID, PlayerData> entry : playerDataMap.entrySet()) {
-                playersTag.put(entry.getKey().toString(), entry.getValue().toNBT());
+            Files.createDirectories(getPlayersDirectory());
+        } catch (IOException e) {
+            PocketEstate.LOGGER.error("Failed to create Pocket Estate data directory: " + e.getMessage());
+            return false;
+        }
+
+        saveCheckpoint = startCheckpoint();
+        saveAsync = async;
+        saveWritten = 0;
+        saveSkipped = 0;
+        for (Map.Entry<UUID, PlayerData> entry : playerDataMap.entrySet()) {
+            if (entry.getValue().isDirty()) {
+                saveQueue.add(new QueuedSave(entry.getKey(), entry.getValue()));
+            } else {
+                saveSkipped++;
+            }
+        }
+        saveInProgress = true;
+        return true;
+    }
+
+    /**
+     * Snapshot (async) or write (sync) up to maxEstates of the queued estates
+     * @return true once the save has finished
+     */
+    public boolean continueSave(int maxEstates) {
+        if (!saveInProgress) return true;
+
+        List<PendingWrite> batch = new ArrayList<>();
+        for (int processed = 0; processed < maxEstates && !saveQueue.isEmpty(); processed++) {
+            QueuedSave queued = saveQueue.poll();
+            PlayerData data = queued.data();
+            if (!data.isDirty()) continue; // Written meanwhile, e.g. by eviction
+            if (saveAsync) {
+                // Marked saved now; a failed write puts it back on the dirty list
+                PlayerData snapshot = data.copy();
+                queuedWrites.put(queued.playerId(), snapshot);
+                batch.add(new PendingWrite(queued.playerId(), snapshot));
+                data.markSaved(data.getModCount());
+                saveWritten++;
+            } else if (writeShard(queued.playerId(), data)) {
+                saveWritten++;
+            }
+        }
+
+        boolean done = saveQueue.isEmpty();
+        long checkpoint = saveCheckpoint;
+        if (saveAsync) {
+            // The last step is queued even when empty so the journal is only trimmed after earlier batches finish
+            if (!batch.isEmpty() || done) {
+                pendingSaves.removeIf(CompletableFuture::isDone);
+                pendingSaves.add(CompletableFuture.runAsync(() -> {
+                    writeBatch(batch);
+                    if (done) finishCheckpoint(checkpoint);
+                }, saveExecutor));
             }
-            rootTag.put("players", playersTag);
-            
-            NbtIo.writeCompressed(rootTag, dataFile.toPath());
-            PocketEstate.LOGGER.debug("Pocket Estate data saved successfully");
+        } else if (done) {
+            finishCheckpoint(checkpoint);
+        }
+
+        if (done) {
+            saveInProgress = false;
+            lastSaveWritten = saveWritten;
+            lastSaveSkipped = saveSkipped;
+            totalSkipped += saveSkipped;
+            PocketEstate.LOGGER.debug("Pocket Estate data saved successfully (" + saveWritten + " written, "
+                + saveSkipped + " unchanged skipped)");
+        }
+        return done;
+    }
+
+    public boolean isSaveInProgress() { return saveInProgress; }
+
+    /**
+     * Number of loaded estates with changes not yet handed to a save
+     */
+    public int countDirtyEstates() {
+        int dirty = 0;
+        for (PlayerData data : playerDataMap.values()) {
+            if (data.isDirty()) dirty++;
+        }
+        return dirty;
+    }
+
+    public AutosaveScheduler getAutosaveScheduler() { return autosaveScheduler; }
+
+    public int getLastSaveWritten() { return lastSaveWritten; }
+    public int getLastSaveSkipped() { return lastSaveSkipped; }
+    public long getTotalSkipped() { return totalSkipped; }
+
+    /**
+     * Save a single player's estate to its shard file
+     * @return true if the shard was written
+     */
+    public boolean savePlayer(UUID playerId) {
+        PlayerData data = playerDataMap.get(playerId);
+        if (data == null) return false;
+
+        try {
+            Files.createDirectories(getPlayersDirectory());
         } catch (IOException e) {
-            PocketEstate.LOGGER.error("Failed to save Pocket Estate data: " + e.getMessage());
+            PocketEstate.LOGGER.error("Failed to create Pocket Estate data directory: " + e.getMessage());
+            return false;
         }
+        return writeShard(playerId, data);
     }
-    
+
+    private boolean writeShard(UUID playerId, PlayerData data) {
+        long modCount = data.getModCount();
+        try {
+            writeShardFile(playerId, data);
+            data.markSaved(modCount);
+            return true;
+        } catch (IOException e) {
+            PocketEstate.LOGGER.error("Failed to save estate " + playerId + ": " + e.getMessage());
+            unsavedEstates.add(playerId);
+            return false;
+        }
+    }
+
     /**
-     * Load all data from disk
+     * Runs on the save thread: encode and write each snapshot
+     */
+    private void writeBatch(List<PendingWrite> batch) {
+        for (PendingWrite write : batch) {
+            try {
+                writeShardFile(write.playerId(), write.snapshot());
+            } catch (Exception e) {
+                PocketEstate.LOGGER.error("Failed to save estate " + write.playerId() + ": " + e.getMessage());
+                unsavedEstates.add(write.playerId());
+                failedSaves.add(write.playerId());
+            }
+        }
+    }
+
+    /**
+     * Write to a temp file, force it to disk and rename it over the shard,
+     * so a crash or power loss never leaves a truncated shard behind
+     */
+    private void writeShardFile(UUID playerId, PlayerData data) throws IOException {
+        if (protectedShards.contains(playerId)) {
+            throw new IOException("its existing shard is unreadable and must not be overwritten");
+        }
+        Path target = getShardPath(playerId);
+        Path temp = target.resolveSibling(target.getFileName() + TEMP_EXTENSION);
+        if (EstateConfig.BINARY_SHARDS) {
+            PlayerDataCodec.write(temp, playerId, data, server.registryAccess());
+        } else {
+            NbtIo.writeCompressed(data.toNBT(server.registryAccess()), temp);
+        }
+        // Without this the rename can reach the disk before the data does
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        unsavedEstates.remove(playerId);
+        queuedWrites.remove(playerId, data);
+    }
+
+    /**
+     * Roll the journal so records logged from now on survive this save
+     * @return the new journal segment, or -1 if the journal must not be trimmed
+     */
+    private long startCheckpoint() {
+        if (journal == null) return -1;
+        try {
+            return journal.rollSegment();
+        } catch (IOException e) {
+            PocketEstate.LOGGER.error("Failed to roll Pocket Estate journal: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Drop journal segments made redundant by a finished save.
+     * Skipped while any estate has failed to save since its last success.
+     */
+    private void finishCheckpoint(long checkpoint) {
+        if (journal == null || checkpoint < 0 || !unsavedEstates.isEmpty()) return;
+        // The renames must be durable before the journal that could redo them goes away
+        if (!syncDirectory(getPlayersDirectory())) return;
+        journal.deleteSegmentsBefore(checkpoint);
+    }
+
+    /**
+     * Flush a directory's entries (renames) to disk
+     * @return false if the directory could not be flushed and the journal must be kept
+     */
+    private static boolean syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+            return true;
+        } catch (AccessDeniedException e) {
+            // Windows cannot open directories; NTFS journals renames itself
+            return true;
+        } catch (IOException e) {
+            PocketEstate.LOGGER.error("Failed to sync Pocket Estate data directory, keeping the journal: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Group-commit journal records logged during this tick
+     */
+    public void commitJournal() {
+        if (journal != null) {
+            journal.commit();
+        }
+    }
+
+    private void requeueFailedSaves() {
+        UUID playerId;
+        while ((playerId = failedSaves.poll()) != null) {
+            PlayerData evicted = queuedWrites.remove(playerId);
+            PlayerData data = playerDataMap.get(playerId);
+            if (data == null && evicted != null) {
+                // Write-back of an unloaded estate failed; make it resident again
+                data = evicted;
+                data.attach(playerId, journal);
+                playerDataMap.put(playerId, data);
+            }
+            if (data != null) {
+                data.markDirty();
+            }
+        }
+    }
+
+    /**
+     * Block until every queued background save has finished
+     */
+    public void awaitPendingSaves() {
+        for (CompletableFuture<Void> future : pendingSaves) {
+            try {
+                future.join();
+            } catch (Exception e) {
+                PocketEstate.LOGGER.error("Pocket Estate background save failed: " + e.getMessage());
+            }
+        }
+        pendingSaves.clear();
+    }
+
+    /**
+     * Final save on server stop: wait for in-flight writes, then flush
+     * everything still dirty on the calling thread
+     */
+    public void shutdown() {
+        // Online estates were simulated up to now
+        long now = PocketEstate.getGameTime();
+        for (Map.Entry<UUID, PlayerData> entry : playerDataMap.entrySet()) {
+            if (isOnline(entry.getKey())) {
+                entry.getValue().setLastActiveTick(now);
+                entry.getValue().markDirty();
+            }
+        }
+        continueSave(Integer.MAX_VALUE);
+        awaitPendingSaves();
+        save(false);
+        if (journal != null) {
+            journal.close();
+        }
+        saveExecutor.shutdown();
+    }
+
+    /**
+     * Prepare storage: migrate legacy data and replay the journal.
+     * Estates themselves are loaded on demand by {@link #getPlayerData}.
      */
     public void load() {
+        migrateLegacyData();
+        openJournal();
+        PocketEstate.LOGGER.info("Pocket Estate storage ready (" + playerDataMap.size() + " estates loaded)");
+    }
+
+    /**
+     * Replay mutations logged since the last save, then start journaling
+     */
+    private void openJournal() {
+        if (!EstateConfig.ENABLE_JOURNAL) return;
+
+        EstateJournal opened = new EstateJournal(getJournalDirectory(), server.registryAccess());
+        try {
+            int applied = opened.replayAndOpen(this::getPlayerData);
+            if (applied > 0) {
+                PocketEstate.LOGGER.info("Replayed " + applied + " journaled estate changes");
+            }
+        } catch (IOException e) {
+            PocketEstate.LOGGER.error("Failed to open Pocket Estate journal, continuing without it: " + e.getMessage());
+            return;
+        }
+
+        journal = opened;
+        for (Map.Entry<UUID, PlayerData> entry : playerDataMap.entrySet()) {
+            entry.getValue().attach(entry.getKey(), journal);
+        }
+    }
+
+    /**
+     * Move an unreadable shard out of the way, so the fresh estate that
+     * replaces it is not saved over the only copy of the player's data
+     */
+    private void setAsideCorruptShard(Path shard, UUID playerId) {
+        Path target = shard.resolveSibling(playerId + CORRUPT_EXTENSION);
+        if (Files.exists(target)) {
+            target = shard.resolveSibling(playerId + CORRUPT_EXTENSION + "." + System.currentTimeMillis());
+        }
+        try {
+            Files.move(shard, target);
+            PocketEstate.LOGGER.error("Estate shard of " + playerId + " is unreadable; moved it to "
+                + target.getFileName() + " and started a new estate. Restore it by hand if it can be repaired.");
+        } catch (IOException e) {
+            protectedShards.add(playerId);
+            PocketEstate.LOGGER.error("Estate shard of " + playerId + " is unreadable and could not be moved aside ("
+                + e.getMessage() + "); the estate will not be saved until the shard is dealt with");
+        }
+    }
+
+    private PlayerData readShard(Path shard, UUID playerId) {
+        try {
+            return PlayerDataCodec.read(shard, playerId, server.registryAccess());
+        } catch (IOException e) {
+            PocketEstate.LOGGER.error("Failed to load estate shard " + shard.getFileName() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * One-time migration from the old single-file format.
+     * Every estate found in pocketestate_data.dat is decoded and written
+     * to its own shard in parallel, then the old file is renamed so it is
+     * not imported again. Migrated estates are not kept resident; they
+     * load on demand like any other shard.
+     */
+    private void migrateLegacyData() {
+        Path legacyFile = server.getWorldPath(LevelResource.ROOT).resolve(LEGACY_DATA_FILE);
+        if (!Files.exists(legacyFile)) return;
+
         try {
-            File dataFile = server.getWorldPath(LevelResource.ROOT)
-                .resolve(DATA_FILE)
-                .toFile();
-            
-            if (dataFile.exists()) {
-                CompoundTag rootTag = NbtIo.readCompressed(
-                    dataFile.toPath(),
-                    net.minecraft.nbt.NbtAccounter.unlimitedHeap()
-                );
-                
-                // Load player data
-                if (rootTag.contains("players")) {
-                    CompoundTag playersTag = rootTag.getCompound("players").orElse(new CompoundTag());
-                    for (String key : playersTag.keySet()) {
-                        UUID playerId = UUID.fromString(key);
-                        CompoundTag playerTag = playersTag.getCompound(key).orElse(new CompoundTag());
-                        playerDataMap.put(playerId, PlayerData.fromNBT(playerTag));
-                    }
+            CompoundTag rootTag = NbtIo.readCompressed(legacyFile, NbtAccounter.unlimitedHeap());
+            CompoundTag playersTag = rootTag.getCompound("players").orElse(new CompoundTag());
+
+            Files.createDirectories(getPlayersDirectory());
+
+            LongAdder migrated = new LongAdder();
+            LongAdder skipped = new LongAdder();
+            Map<UUID, PlayerData> failed = new ConcurrentHashMap<>();
+            Set<String> failedKeys = ConcurrentHashMap.newKeySet();
+            Map<String, LongAdder> perThread = new ConcurrentHashMap<>();
+
+            long start = System.nanoTime();
+            ForkJoinPool pool = new ForkJoinPool(getLoadThreads());
+            try {
+                List<ForkJoinTask<?>> tasks = new ArrayList<>();
+                for (String key : playersTag.keySet()) {
+                    tasks.add(pool.submit(() -> {
+                        // Only estates actually decoded and written count towards throughput
+                        if (migrateEstate(playersTag, key, skipped, failed, failedKeys)) {
+                            migrated.increment();
+                            perThread.computeIfAbsent(Thread.currentThread().getName(), k -> new LongAdder()).increment();
+                        }
+                    }));
+                }
+                for (ForkJoinTask<?> task : tasks) {
+                    task.join();
                 }
-                
-                PocketEstate.LOGGER.info("Loaded data for " + playerDataMap.size() + " players");
+            } finally {
+                pool.shutdown();
             }
+            logLoadThroughput("Migrated " + migrated.sum() + " legacy estates (" + skipped.sum()
+                + " already had shards)", start, perThread);
+
+            // Estates whose shard could not be written stay resident, so the next save retries them
+            for (Map.Entry<UUID, PlayerData> entry : failed.entrySet()) {
+                entry.getValue().markDirty();
+                playerDataMap.put(entry.getKey(), entry.getValue());
+            }
+
+            // The original is kept as a backup; the legacy file shrinks to the failed entries
+            Path backup = legacyFile.resolveSibling(LEGACY_DATA_FILE + LEGACY_MIGRATED_SUFFIX);
+            if (failedKeys.isEmpty()) {
+                Files.move(legacyFile, backup, StandardCopyOption.REPLACE_EXISTING);
+                PocketEstate.LOGGER.info("Migrated " + migrated.sum() + " estates from " + LEGACY_DATA_FILE + " to per-player shards");
+                return;
+            }
+            Files.copy(legacyFile, backup, StandardCopyOption.REPLACE_EXISTING);
+            CompoundTag remaining = new CompoundTag();
+            for (String key : failedKeys) {
+                playersTag.getCompound(key).ifPresent(tag -> remaining.put(key, tag));
+            }
+            CompoundTag retryTag = new CompoundTag();
+            retryTag.put("players", remaining);
+            Path temp = legacyFile.resolveSibling(LEGACY_DATA_FILE + TEMP_EXTENSION);
+            NbtIo.writeCompressed(retryTag, temp);
+            Files.move(temp, legacyFile, StandardCopyOption.REPLACE_EXISTING);
+            PocketEstate.LOGGER.warn("Legacy Pocket Estate data only partially migrated; " + failedKeys.size()
+                + " estates are left in " + LEGACY_DATA_FILE + " and will be retried on next start");
         } catch (IOException e) {
-            PocketEstate.LOGGER.error("Failed to load Pocket Estate data: " + e.getMessage());
+            PocketEstate.LOGGER.error("Failed to migrate legacy Pocket Estate data: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs on a load worker: decode one legacy estate and write its shard.
+     * Estates that fail to decode or write are recorded in {@code failedKeys}
+     * (and, if decoded, in {@code failed}) so they are retried.
+     * @return true if the estate was migrated
+     */
+    private boolean migrateEstate(CompoundTag playersTag, String key, LongAdder skipped,
+                                  Map<UUID, PlayerData> failed, Set<String> failedKeys) {
+        UUID playerId;
+        try {
+            playerId = UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            PocketEstate.LOGGER.warn("Skipping legacy estate with invalid id: " + key);
+            return false;
+        }
+
+        // A shard that already exists is newer than the legacy copy
+        if (Files.exists(getShardPath(playerId))) {
+            skipped.increment();
+            return false;
+        }
+
+        PlayerData data;
+        try {
+            data = PlayerData.fromNBT(playersTag.getCompound(key).orElse(new CompoundTag()), server.registryAccess());
+        } catch (RuntimeException e) {
+            PocketEstate.LOGGER.error("Failed to decode legacy estate " + key + ": " + e);
+            failedKeys.add(key);
+            return false;
+        }
+        if (writeShard(playerId, data)) {
+            return true;
+        }
+        failed.put(playerId, data);
+        failedKeys.add(key);
+        return false;
+    }
+
+    private static int getLoadThreads() {
+        return EstateConfig.LOAD_THREADS > 0
+            ? EstateConfig.LOAD_THREADS
+            : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static void logLoadThroughput(String what, long startNanos, Map<String, LongAdder> perThread) {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        PocketEstate.LOGGER.info(what + " in " + Math.round(seconds * 1000) + " ms on " + perThread.size() + " threads");
+        for (Map.Entry<String, LongAdder> entry : perThread.entrySet()) {
+            long count = entry.getValue().sum();
+            PocketEstate.LOGGER.info("  " + entry.getKey() + ": " + count + " estates (" + Math.round(count / seconds) + "/s)");
         }
     }
 }
@@ -0,0 +1,496 @@
+package com.pocketestate.data;
+
+import com.pocketestate.PocketEstate;
+import com.pocketestate.farm.CropPlot;
+import com.pocketestate.farm.CropType;
+import com.pocketestate.farm.MobPen;
+import com.pocketestate.farm.PenType;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Write-ahead journal of estate mutations between full saves
+ *
+ * Mutations are appended as compact binary records to an in-memory
+ * buffer and group-committed to disk once per tick. Every record has a
+ * log sequence number (LSN); a shard stores the LSN of the newest record
+ * it already contains, so replay only re-applies newer records and is
+ * safe to run more than once.
+ *
+ * The journal is split into numbered segments. A checkpoint (full save)
+ * rolls over to a new segment, and once everything in the checkpoint is
+ * on disk the older segments are deleted.
+ */
+public class EstateJournal {
+    private static final int MAGIC = 0x50454A4C; // "PEJL"
+    // 2: plots record growth start instead of progress, 3: plot ranges, 4: pen output adds and compost,
+    // 5: pens and settings
+    private static final byte FORMAT_VERSION = 5;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_EXTENSION = ".bin";
+
+    // Record types
+    private static final byte BALANCE = 1;
+    private static final byte UNLOCKED_SLOTS = 2;
+    private static final byte PLOT = 3;
+    private static final byte CROP_OUTPUT_ADD = 4;
+    private static final byte OUTPUT_REMOVE = 5;
+    private static final byte OUTPUT_CLEAR = 6;
+    private static final byte STATS = 7;
+    private static final byte PLOT_RANGE = 8;
+    private static final byte OUTPUT_ADD = 9;
+    private static final byte COMPOST = 10;
+    private static final byte PEN = 11;
+    private static final byte SETTINGS = 12;
+
+    // Buffer selector for OUTPUT_REMOVE / OUTPUT_CLEAR
+    static final byte PEN_OUTPUT = 0;
+    static final byte CROP_OUTPUT = 1;
+
+    private final Path directory;
+    private final HolderLookup.Provider registries; // Pen tools use the full item codec
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final DataOutputStream out = new DataOutputStream(buffer);
+
+    private FileChannel channel;
+    private long segmentSeq = 0;
+    private long nextLsn = 1;
+    private int pendingRecords = 0;
+    private long committedRecords = 0;
+
+    public EstateJournal(Path directory, HolderLookup.Provider registries) {
+        this.directory = directory;
+        this.registries = registries;
+    }
+
+    public long getCommittedRecords() { return committedRecords; }
+
+    // ===== Logging (server thread) =====
+
+    public long logBalance(UUID owner, long balance) {
+        try {
+            long lsn = beginRecord(BALANCE, owner);
+            VarInt.writeVarLong(out, balance);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // In-memory buffer, cannot happen
+        }
+    }
+
+    public long logUnlockedSlots(UUID owner, int slots) {
+        try {
+            long lsn = beginRecord(UNLOCKED_SLOTS, owner);
+            VarInt.writeVarInt(out, slots);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long logPlot(UUID owner, int index, CropType type, long growthStart, int harvestCount) {
+        try {
+            long lsn = beginRecord(PLOT, owner);
+            VarInt.writeVarInt(out, index);
+            out.writeByte(type == null ? 0 : type.ordinal() + 1);
+            VarInt.writeSignedVarLong(out, growthStart);
+            VarInt.writeVarInt(out, harvestCount);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Log {@code count} consecutive plots set to the same state
+     */
+    public long logPlotRange(UUID owner, int from, int count, CropType type, long growthStart, int harvestCount) {
+        try {
+            long lsn = beginRecord(PLOT_RANGE, owner);
+            VarInt.writeVarInt(out, from);
+            VarInt.writeVarInt(out, count);
+            out.writeByte(type == null ? 0 : type.ordinal() + 1);
+            VarInt.writeSignedVarLong(out, growthStart);
+            VarInt.writeVarInt(out, harvestCount);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long logCropOutputAdd(UUID owner, ItemStack stack) {
+        return logCropOutputAdd(owner, stack.getItem(), stack.getCount());
+    }
+
+    public long logCropOutputAdd(UUID owner, Item item, int count) {
+        try {
+            long lsn = beginRecord(CROP_OUTPUT_ADD, owner);
+            PlayerDataCodec.writeItemKey(out, item);
+            VarInt.writeVarInt(out, count);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Log items added to the pen output buffer (pen drops carry no components)
+     */
+    public long logOutputAdd(UUID owner, Item item, int count) {
+        try {
+            long lsn = beginRecord(OUTPUT_ADD, owner);
+            PlayerDataCodec.writeItemKey(out, item);
+            VarInt.writeVarInt(out, count);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long logCompost(UUID owner, int progress, int resources, int bonemeal, long settledAt) {
+        try {
+            long lsn = beginRecord(COMPOST, owner);
+            VarInt.writeVarInt(out, progress);
+            VarInt.writeVarInt(out, resources);
+            VarInt.writeVarInt(out, bonemeal);
+            VarInt.writeSignedVarLong(out, settledAt);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Log the whole state of one pen (unlocked, fodder, tool, construction),
+     * in the same form the shard stores it
+     */
+    public long logPen(UUID owner, MobPen pen) {
+        try {
+            long lsn = beginRecord(PEN, owner);
+            out.writeByte(pen.getPenType().ordinal());
+            pen.writeBinary(out, registries);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long logSettings(UUID owner, int flags) {
+        try {
+            long lsn = beginRecord(SETTINGS, owner);
+            out.writeByte(flags);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long logOutputRemove(UUID owner, byte which, int index) {
+        try {
+            long lsn = beginRecord(OUTPUT_REMOVE, owner);
+            out.writeByte(which);
+            VarInt.writeVarInt(out, index);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long logOutputClear(UUID owner, byte which) {
+        try {
+            long lsn = beginRecord(OUTPUT_CLEAR, owner);
+            out.writeByte(which);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public long logStats(UUID owner, long cropsHarvested, long xpEarned, long moneyEarned) {
+        try {
+            long lsn = beginRecord(STATS, owner);
+            VarInt.writeVarLong(out, cropsHarvested);
+            VarInt.writeVarLong(out, xpEarned);
+            VarInt.writeVarLong(out, moneyEarned);
+            return lsn;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long beginRecord(byte type, UUID owner) throws IOException {
+        long lsn = nextLsn++;
+        pendingRecords++;
+        out.writeByte(type);
+        VarInt.writeVarLong(out, lsn);
+        out.writeLong(owner.getMostSignificantBits());
+        out.writeLong(owner.getLeastSignificantBits());
+        return lsn;
+    }
+
+    /**
+     * Group commit: append everything logged since the last commit to the
+     * current segment and force it to disk. Called once per server tick.
+     */
+    public void commit() {
+        if (buffer.size() == 0 || channel == null) return;
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(false);
+            committedRecords += pendingRecords;
+        } catch (IOException e) {
+            PocketEstate.LOGGER.error("Failed to commit Pocket Estate journal: " + e.getMessage());
+        } finally {
+            buffer.reset();
+            pendingRecords = 0;
+        }
+    }
+
+    // ===== Segments =====
+
+    /**
+     * Start a new segment for a checkpoint.
+     * @return the new segment number; older segments may be deleted once
+     *         the checkpoint has been fully written
+     */
+    public long rollSegment() throws IOException {
+        commit();
+        closeChannel();
+        segmentSeq++;
+        Path segment = directory.resolve(SEGMENT_PREFIX + segmentSeq + SEGMENT_EXTENSION);
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+        // Header records the next LSN so numbering continues after a restart
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream headerOut = new DataOutputStream(header);
+        headerOut.writeInt(MAGIC);
+        headerOut.writeByte(FORMAT_VERSION);
+        headerOut.writeLong(nextLsn);
+        channel.write(ByteBuffer.wrap(header.toByteArray()));
+        channel.force(false);
+        return segmentSeq;
+    }
+
+    /**
+     * Delete every segment older than the given one.
+     * Only touches closed segment files, so it may run on the save thread.
+     */
+    public void deleteSegmentsBefore(long seq) {
+        for (Path segment : listSegments()) {
+            if (parseSegmentSeq(segment) < seq) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    PocketEstate.LOGGER.warn("Failed to delete journal segment " + segment.getFileName() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    public void close() {
+        commit();
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            PocketEstate.LOGGER.warn("Failed to close journal segment: " + e.getMessage());
+        }
+        channel = null;
+    }
+
+    private List<Path> listSegments() {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) return segments;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_EXTENSION)) {
+            for (Path segment : stream) {
+                if (parseSegmentSeq(segment) >= 0) {
+                    segments.add(segment);
+                }
+            }
+        } catch (IOException e) {
+            PocketEstate.LOGGER.error("Failed to list journal segments: " + e.getMessage());
+        }
+        segments.sort((a, b) -> Long.compare(parseSegmentSeq(a), parseSegmentSeq(b)));
+        return segments;
+    }
+
+    private static long parseSegmentSeq(Path segment) {
+        String name = segment.getFileName().toString();
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_EXTENSION.length()));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return -1;
+        }
+    }
+
+    // ===== Replay (startup) =====
+
+    /**
+     * Re-apply all journaled mutations newer than each estate's shard,
+     * then open a fresh segment for new records.
+     * @param resolver looks up (or creates) the estate a record belongs to
+     * @return number of records applied
+     */
+    public int replayAndOpen(Function<UUID, PlayerData> resolver) throws IOException {
+        Files.createDirectories(directory);
+
+        int applied = 0;
+        for (Path segment : listSegments()) {
+            segmentSeq = Math.max(segmentSeq, parseSegmentSeq(segment));
+            applied += replaySegment(segment, resolver);
+        }
+
+        rollSegment();
+        return applied;
+    }
+
+    private int replaySegment(Path segment, Function<UUID, PlayerData> resolver) throws IOException {
+        int applied = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment)))) {
+            int version = in.readInt() == MAGIC ? in.readByte() : -1;
+            if (version < 1 || version > FORMAT_VERSION) {
+                PocketEstate.LOGGER.warn("Skipping unrecognised journal segment " + segment.getFileName());
+                return 0;
+            }
+            nextLsn = Math.max(nextLsn, in.readLong());
+
+            while (true) {
+                int type = in.read();
+                if (type < 0) break; // Clean end of segment
+
+                long lsn = VarInt.readVarLong(in);
+                UUID owner = new UUID(in.readLong(), in.readLong());
+                nextLsn = Math.max(nextLsn, lsn + 1);
+
+                PlayerData data = resolver.apply(owner);
+                if (applyRecord((byte) type, version, in, data, lsn > data.getJournalLsn())) {
+                    data.setJournalLsn(lsn);
+                    data.markDirty();
+                    applied++;
+                }
+            }
+        } catch (EOFException e) {
+            // A crash mid-commit leaves a torn final record; everything before it is intact
+            PocketEstate.LOGGER.warn("Journal segment " + segment.getFileName() + " ends with an incomplete record");
+        } catch (IOException e) {
+            PocketEstate.LOGGER.error("Stopped replaying corrupt journal segment " + segment.getFileName() + ": " + e.getMessage());
+        }
+        return applied;
+    }
+
+    /**
+     * Read one record body and apply it when {@code apply} is set
+     * @return true if the record was applied
+     */
+    private boolean applyRecord(byte recordType, int version, DataInputStream in, PlayerData data, boolean apply) throws IOException {
+        switch (recordType) {
+            case BALANCE -> {
+                long balance = VarInt.readVarLong(in);
+                if (apply) data.setBalance(balance);
+            }
+            case UNLOCKED_SLOTS -> {
+                int slots = VarInt.readVarInt(in);
+                if (apply) data.setUnlockedCropSlots(slots);
+            }
+            case PLOT -> {
+                int index = VarInt.readVarInt(in);
+                int crop = in.readUnsignedByte();
+                long growthStart = version >= 2
+                    ? VarInt.readSignedVarLong(in)
+                    : CropPlot.growthStartFromProgress(VarInt.readVarInt(in));
+                int harvestCount = VarInt.readVarInt(in);
+                CropType cropType = crop > 0 && crop <= CropType.values().length ? CropType.values()[crop - 1] : null;
+                if (apply) data.restorePlots(index, 1, cropType, growthStart, harvestCount);
+            }
+            case PLOT_RANGE -> {
+                int from = VarInt.readVarInt(in);
+                int count = VarInt.readVarInt(in);
+                int crop = in.readUnsignedByte();
+                long growthStart = VarInt.readSignedVarLong(in);
+                int harvestCount = VarInt.readVarInt(in);
+                CropType cropType = crop > 0 && crop <= CropType.values().length ? CropType.values()[crop - 1] : null;
+                if (apply) data.restorePlots(from, count, cropType, growthStart, harvestCount);
+            }
+            case CROP_OUTPUT_ADD -> {
+                String key = in.readUTF();
+                int count = VarInt.readVarInt(in);
+                Item item = PlayerDataCodec.resolveItem(key);
+                // Same path as live harvests, so stacks split and indices line up the same way
+                if (apply && item != null) data.addToCropOutput(item, count);
+            }
+            case OUTPUT_ADD -> {
+                String key = in.readUTF();
+                int count = VarInt.readVarInt(in);
+                Item item = PlayerDataCodec.resolveItem(key);
+                if (apply && item != null) data.addToOutput(new ItemStack(item, count));
+            }
+            case COMPOST -> {
+                int progress = VarInt.readVarInt(in);
+                int resources = VarInt.readVarInt(in);
+                int bonemeal = VarInt.readVarInt(in);
+                long settledAt = VarInt.readSignedVarLong(in);
+                if (apply) data.restoreCompost(progress, resources, bonemeal, settledAt);
+            }
+            case PEN -> {
+                int ordinal = in.readUnsignedByte();
+                if (ordinal >= PenType.values().length) throw new IOException("Unknown pen type " + ordinal);
+                PenType penType = PenType.values()[ordinal];
+                MobPen pen = MobPen.readBinary(in, penType, PlayerDataCodec.VERSION, registries);
+                if (apply) data.restorePen(pen);
+            }
+            case SETTINGS -> {
+                int flags = in.readUnsignedByte();
+                if (apply) data.restoreSettings(flags);
+            }
+            case OUTPUT_REMOVE -> {
+                byte which = in.readByte();
+                int index = VarInt.readVarInt(in);
+                if (apply) {
+                    if (which == CROP_OUTPUT) data.removeFromCropOutput(index);
+                    else data.removeFromOutput(index);
+                }
+            }
+            case OUTPUT_CLEAR -> {
+                byte which = in.readByte();
+                if (apply) {
+                    if (which == CROP_OUTPUT) data.clearCropOutput();
+                    else data.clearOutput();
+                }
+            }
+            case STATS -> {
+                long crops = VarInt.readVarLong(in);
+                long xp = VarInt.readVarLong(in);
+                long money = VarInt.readVarLong(in);
+                if (apply) data.restoreStats(crops, xp, money);
+            }
+            default -> throw new IOException("Unknown journal record type " + recordType);
+        }
+        return apply;
+    }
+
+}
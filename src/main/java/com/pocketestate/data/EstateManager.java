@@ -38,6 +38,13 @@ public class EstateManager {
         36000,  38000,  40000,  42000,  44000,  46000,  48000,  50000,  55000
     };
     
+    /**
+     * Cost of a crop slot; slots past the end of the table cost as much as the last one
+     */
+    private static long getCropSlotCost(int slot) {
+        return CROP_SLOT_COSTS[Math.min(slot, CROP_SLOT_COSTS.length - 1)];
+    }
+    
     /**
      * Get the cost to unlock the next crop slot
      */
@@ -47,9 +54,9 @@ public class EstateManager {
         PlayerData data = PocketEstate.dataManager.getPlayerData(playerId);
         int currentSlots = data.getUnlockedCropSlots();
         
-        if (currentSlots >= PlayerData.MAX_CROP_PLOTS) return -1; // Already maxed
+        if (currentSlots >= data.getMaxCropPlots()) return -1; // Already maxed
         
-        return CROP_SLOT_COSTS[currentSlots];
+        return getCropSlotCost(currentSlots);
     }
     
     /**
@@ -62,9 +69,9 @@ public class EstateManager {
         PlayerData data = PocketEstate.dataManager.getPlayerData(player.getUUID());
         int currentSlots = data.getUnlockedCropSlots();
         
-        if (currentSlots >= PlayerData.MAX_CROP_PLOTS) return false; // Already maxed
+        if (currentSlots >= data.getMaxCropPlots()) return false; // Already maxed
         
-        long cost = CROP_SLOT_COSTS[currentSlots];
+        long cost = getCropSlotCost(currentSlots);
         
         if (!CurrencyManager.canAfford(player, cost)) {
             CurrencyManager.sendInsufficientFundsMessage(player, cost);
@@ -124,17 +131,9 @@ public class EstateManager {
             .sum();
         
         // Count planted and ready crops
-        for (int i = 0; i < data.getUnlockedCropSlots(); i++) {
-            var plot = data.getCropPlot(i);
-            if (plot != null) {
-                if (plot.isPlanted()) {
-                    stats.plantedCrops++;
-                    if (plot.isFullyGrown()) {
-                        stats.readyCrops++;
-                    }
-                }
-            }
-        }
+        var field = data.getCropField();
+        stats.plantedCrops = field.countPlanted(data.getUnlockedCropSlots());
+        stats.readyCrops = field.countReady(data.getUnlockedCropSlots(), PocketEstate.getGameTime());
         
         return stats;
     }
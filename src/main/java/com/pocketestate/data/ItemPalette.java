@@ -0,0 +1,81 @@
+package com.pocketestate.data;
+
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.world.item.Item;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-file table of item registry keys
+ *
+ * Each distinct item is written once by its {@link BuiltInRegistries#ITEM}
+ * key; stacks then refer to it by a small index. Any registered item
+ * round-trips, including modded ones.
+ */
+public final class ItemPalette {
+    private final List<Item> items = new ArrayList<>();
+    private final Map<Item, Integer> indices = new IdentityHashMap<>();
+
+    /**
+     * Get the index of an item, adding it to the palette if needed
+     */
+    public int indexOf(Item item) {
+        Integer index = indices.get(item);
+        if (index == null) {
+            index = items.size();
+            items.add(item);
+            indices.put(item, index);
+        }
+        return index;
+    }
+
+    /**
+     * @return the item at this index, or null if it was not found in the registry on load
+     */
+    public Item get(int index) {
+        return index >= 0 && index < items.size() ? items.get(index) : null;
+    }
+
+    public int size() { return items.size(); }
+
+    public void write(DataOutput out) throws IOException {
+        VarInt.writeVarInt(out, items.size());
+        for (Item item : items) {
+            out.writeUTF(BuiltInRegistries.ITEM.getKey(item).toString());
+        }
+    }
+
+    public static ItemPalette read(DataInput in) throws IOException {
+        ItemPalette palette = new ItemPalette();
+        int size = VarInt.readVarInt(in);
+        for (int i = 0; i < size; i++) {
+            // Unknown keys keep their slot so later indices still line up
+            palette.items.add(PlayerDataCodec.resolveItem(in.readUTF()));
+        }
+        return palette;
+    }
+
+    public ListTag toNBT() {
+        ListTag tag = new ListTag();
+        for (Item item : items) {
+            tag.add(StringTag.valueOf(BuiltInRegistries.ITEM.getKey(item).toString()));
+        }
+        return tag;
+    }
+
+    public static ItemPalette fromNBT(ListTag tag) {
+        ItemPalette palette = new ItemPalette();
+        for (int i = 0; i < tag.size(); i++) {
+            palette.items.add(PlayerDataCodec.resolveItem(tag.getString(i).orElse("")));
+        }
+        return palette;
+    }
+}
@@ -1,16 +1,24 @@
 package com.pocketestate.data;
 
+import com.pocketestate.PocketEstate;
+import com.pocketestate.config.EstateConfig;
+import com.pocketestate.farm.CropField;
 import com.pocketestate.farm.CropPlot;
+import com.pocketestate.farm.CropReadyEvents;
 import com.pocketestate.farm.MobPen;
 import com.pocketestate.farm.CropType;
 import com.pocketestate.farm.PenType;
-import net.minecraft.core.registries.BuiltInRegistries;
+import com.pocketestate.farm.VirtualCropManager;
+import net.minecraft.core.HolderLookup;
 import net.minecraft.nbt.CompoundTag;
 import net.minecraft.nbt.ListTag;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -20,8 +28,8 @@ import java.util.*;
 public class PlayerData {
     private long balance = 1000; // Starting balance
 
-    // Crop fields (indexed 0-179 for 180 plots across 20 pages)
-    private final List<CropPlot> cropPlots = new ArrayList<>();
+    // Crop fields (EstateConfig.MAX_CROP_PLOTS plots, 9 per page)
+    private CropField cropField = CropField.create(EstateConfig.MAX_CROP_PLOTS);
     private int unlockedCropSlots = 3; // Start with 3 unlocked
 
     // Mob pens (by type)
@@ -31,10 +39,11 @@ public class PlayerData {
     private final List<ItemStack> outputBuffer = new ArrayList<>(); // Mob pen output
     private final List<ItemStack> cropOutput = new ArrayList<>(); // Crop harvest output
     
-    // Compost Bin
+    // Compost Bin (state as of compostSettledAt; advanced lazily from game time)
     private int compostProgress = 0; // 0-100, produces bonemeal at 100
     private int compostResources = 0; // Adds speed to composting
     private int storedBonemeal = 0;
+    private long compostSettledAt = PocketEstate.getGameTime();
     
     // Auto-harvest settings
     private boolean autoHarvestEnabled = false;
@@ -45,114 +54,343 @@ public class PlayerData {
     private long totalXpEarned = 0;
     private long totalMoneyEarned = 0;
 
-    // Maximum number of crop plots (20 pages of 9)
-    public static final int MAX_CROP_PLOTS = 180;
+    // Change tracking: every mutator bumps modCount, a save records the
+    // modCount it wrote so unchanged estates can be skipped next time
+    private long modCount = 0;
+    private long savedModCount = 0;
+
+    // Write-ahead journal, attached by DataManager once the owner is known
+    private UUID owner;
+    private EstateJournal journal;
+    private long journalLsn = 0; // Newest journal record already reflected in this data
+
+    // Server tick of the last lookup, used to unload idle offline estates
+    private long lastAccessTick = 0;
+
+    // Game time the owner was last known to be online; offline catch-up starts here
+    private long lastActiveTick = 0;
+
+    // Whether the owner is online; offline estates only earn compost up to the catch-up cap (not saved)
+    private boolean ownerOnline = false;
+
+    // Game time pens last produced up to (not saved; offline catch-up resets it)
+    private long lastProductionTick = 0;
+
+    // Whether the estate is currently simulated at reduced fidelity (not saved)
+    private boolean idle = false;
+
+    // Whether none, some or all planted crops are ready (not saved; rebuilt from ready events)
+    private CropReadyEvents.Readiness readiness = CropReadyEvents.Readiness.NONE;
+
     public static final int PLOTS_PER_PAGE = 9;
 
-    // Item ID lookup map for NBT serialization
-    private static final Map<String, Item> ITEM_LOOKUP = new HashMap<>();
-    private static final Map<Item, String> ITEM_REVERSE = new IdentityHashMap<>();
-    
-    static {
-        // Common items used in estate
-        registerItem("wheat", Items.WHEAT);
-        registerItem("wheat_seeds", Items.WHEAT_SEEDS);
-        registerItem("carrot", Items.CARROT);
-        registerItem("potato", Items.POTATO);
-        registerItem("beetroot", Items.BEETROOT);
-        registerItem("beetroot_seeds", Items.BEETROOT_SEEDS);
-        registerItem("melon_slice", Items.MELON_SLICE);
-        registerItem("melon_seeds", Items.MELON_SEEDS);
-        registerItem("pumpkin", Items.PUMPKIN);
-        registerItem("pumpkin_seeds", Items.PUMPKIN_SEEDS);
-        registerItem("nether_wart", Items.NETHER_WART);
-        registerItem("bone_meal", Items.BONE_MEAL);
-        // Mob drops
-        registerItem("white_wool", Items.WHITE_WOOL);
-        registerItem("mutton", Items.MUTTON);
-        registerItem("leather", Items.LEATHER);
-        registerItem("beef", Items.BEEF);
-        registerItem("feather", Items.FEATHER);
-        registerItem("egg", Items.EGG);
-        registerItem("chicken", Items.CHICKEN);
-        registerItem("string", Items.STRING);
-        registerItem("spider_eye", Items.SPIDER_EYE);
-        registerItem("rotten_flesh", Items.ROTTEN_FLESH);
-        registerItem("iron_ingot", Items.IRON_INGOT);
-        registerItem("bone", Items.BONE);
-        registerItem("arrow", Items.ARROW);
-        registerItem("poppy", Items.POPPY);
+    // Balance methods
+    public long getBalance() { return balance; }
+    public void setBalance(long balance) {
+        this.balance = Math.max(0, balance);
+        markDirty();
+        if (journal != null) journalLsn = journal.logBalance(owner, this.balance);
     }
-    
-    private static void registerItem(String id, Item item) {
-        ITEM_LOOKUP.put(id, item);
-        ITEM_REVERSE.put(item, id);
+    public void addBalance(long amount) {
+        this.balance += amount;
+        markDirty();
+        if (journal != null) journalLsn = journal.logBalance(owner, this.balance);
     }
-    
-    private static String getItemId(Item item) {
-        return ITEM_REVERSE.getOrDefault(item, "unknown");
+
+    // Change tracking
+    /**
+     * Flag this estate as changed since the last save.
+     * Call after mutating a CropPlot or MobPen obtained from this estate.
+     */
+    public void markDirty() { modCount++; }
+    public boolean isDirty() { return modCount != savedModCount; }
+    public long getModCount() { return modCount; }
+    /**
+     * Record that the state at the given modCount has been written to disk
+     */
+    public void markSaved(long savedAt) { this.savedModCount = savedAt; }
+
+    /**
+     * Flag a crop plot as changed, schedule its ready time and journal its new state.
+     * Call after planting, harvesting, clearing or boosting a plot.
+     */
+    public void markPlotChanged(int index) {
+        markPlotsChanged(index, 1);
+        updateReadiness();
     }
-    
-    private static Item getItemById(String id) {
-        return ITEM_LOOKUP.getOrDefault(id, Items.AIR);
+
+    /**
+     * Same as {@link #markPlotChanged} for {@code count} consecutive plots
+     * that were all set to the same state, e.g. a range reported by one of
+     * the {@link CropField} bulk operations. Schedules and journals once,
+     * but leaves the readiness alone: call {@link #updateReadiness} once
+     * after the whole bulk operation.
+     */
+    public void markPlotsChanged(int from, int count) {
+        markDirty();
+        if (from < 0 || count <= 0 || from + count > cropField.size()) return;
+        if (owner != null) {
+            VirtualCropManager.scheduleReady(owner, cropField, from);
+        }
+        if (journal != null) {
+            CropType type = cropField.getCropType(from);
+            long growthStart = cropField.getGrowthStart(from);
+            int harvestCount = cropField.getHarvestCount(from);
+            journalLsn = count == 1
+                ? journal.logPlot(owner, from, type, growthStart, harvestCount)
+                : journal.logPlotRange(owner, from, count, type, growthStart, harvestCount);
+        }
     }
 
-    public PlayerData() {
-        // Initialize 180 empty crop plots (20 pages of 9)
-        for (int i = 0; i < MAX_CROP_PLOTS; i++) {
-            cropPlots.add(new CropPlot());
+    /**
+     * Recount ready and growing plots after plots changed (without notifying the owner)
+     */
+    public void updateReadiness() {
+        if (owner != null) {
+            VirtualCropManager.updateReadiness(owner, this, false);
         }
     }
 
-    // Balance methods
-    public long getBalance() { return balance; }
-    public void setBalance(long balance) { this.balance = Math.max(0, balance); }
-    public void addBalance(long amount) { this.balance += amount; }
+    // Residency
+    void touch(long tick) { this.lastAccessTick = tick; }
+    long getLastAccessTick() { return lastAccessTick; }
+
+    // Readiness notifications
+    public CropReadyEvents.Readiness getReadiness() { return readiness; }
+    public void setReadiness(CropReadyEvents.Readiness readiness) { this.readiness = readiness; }
+
+    // Offline catch-up
+    public long getLastActiveTick() { return lastActiveTick; }
+    /**
+     * Record that the estate has been simulated up to this game time.
+     * Does not mark the estate dirty; callers that must persist it do so.
+     */
+    public void setLastActiveTick(long tick) { this.lastActiveTick = tick; }
+    public boolean isOwnerOnline() { return ownerOnline; }
+    public void setOwnerOnline(boolean online) { this.ownerOnline = online; }
+    public long getLastProductionTick() { return lastProductionTick; }
+    public void setLastProductionTick(long tick) { this.lastProductionTick = tick; }
+
+    // Adaptive fidelity
+    public boolean isIdle() { return idle; }
+    /**
+     * Switch between full and reduced fidelity. Ready events are ignored
+     * while idle, so waking up queues the estate's ready times again.
+     */
+    public void setIdle(boolean idle) {
+        boolean woke = this.idle && !idle;
+        this.idle = idle;
+        if (woke && owner != null) {
+            VirtualCropManager.scheduleEstate(owner, this);
+        }
+    }
+    /**
+     * Record that the owner used the estate (joined or used a GUI);
+     * an idle estate returns to full fidelity right away
+     */
+    public void markInteraction() {
+        setIdle(false);
+    }
+
+    // Owner and journal, set by DataManager once the estate is resident
+    void attach(UUID owner, EstateJournal journal) {
+        this.owner = owner;
+        this.journal = journal;
+    }
+    long getJournalLsn() { return journalLsn; }
+    void setJournalLsn(long lsn) { this.journalLsn = lsn; }
+
+    void restorePlots(int from, int count, CropType type, long growthStart, int harvestCount) {
+        if (from < 0 || from >= cropField.size()) return;
+        count = Math.min(count, cropField.size() - from);
+        cropField.setRange(from, count, type, growthStart, harvestCount);
+        markDirty();
+        if (owner != null) {
+            VirtualCropManager.scheduleReady(owner, cropField, from);
+        }
+    }
+
+    void restoreStats(long cropsHarvested, long xpEarned, long moneyEarned) {
+        this.totalCropsHarvested = cropsHarvested;
+        this.totalXpEarned = xpEarned;
+        this.totalMoneyEarned = moneyEarned;
+        markDirty();
+    }
+
+    void restoreCompost(int progress, int resources, int bonemeal, long settledAt) {
+        this.compostProgress = progress;
+        this.compostResources = resources;
+        this.storedBonemeal = bonemeal;
+        this.compostSettledAt = settledAt;
+        markDirty();
+    }
+
+    void restorePen(MobPen pen) {
+        mobPens.put(pen.getPenType(), pen);
+        markDirty();
+    }
+
+    void restoreSettings(int flags) {
+        this.autoHarvestEnabled = (flags & FLAG_AUTO_HARVEST) != 0;
+        this.autoFeedPensEnabled = (flags & FLAG_AUTO_FEED) != 0;
+        markDirty();
+    }
+
+    /**
+     * Journal the whole (just settled) compost bin, so replay does not depend on when it is read
+     */
+    private void journalCompost() {
+        if (journal != null) {
+            journalLsn = journal.logCompost(owner, compostProgress, compostResources, storedBonemeal, compostSettledAt);
+        }
+    }
+
+    private void journalStats() {
+        if (journal != null) journalLsn = journal.logStats(owner, totalCropsHarvested, totalXpEarned, totalMoneyEarned);
+    }
+
+    private void journalSettings() {
+        if (journal != null) journalLsn = journal.logSettings(owner, settingsFlags());
+    }
+
+    private int settingsFlags() {
+        return (autoHarvestEnabled ? FLAG_AUTO_HARVEST : 0) | (autoFeedPensEnabled ? FLAG_AUTO_FEED : 0);
+    }
 
     // Crop plot methods
-    public List<CropPlot> getCropPlots() { return cropPlots; }
+    public CropField getCropField() { return cropField; }
+    public int getMaxCropPlots() { return cropField.size(); }
+    /**
+     * @return a view of the plot at this index, or null if out of range
+     */
     public CropPlot getCropPlot(int index) {
-        if (index >= 0 && index < cropPlots.size()) {
-            return cropPlots.get(index);
+        if (index >= 0 && index < cropField.size()) {
+            return cropField.plot(index);
         }
         return null;
     }
 
     public int getUnlockedCropSlots() { return unlockedCropSlots; }
-    public void setUnlockedCropSlots(int slots) { this.unlockedCropSlots = Math.min(MAX_CROP_PLOTS, slots); }
+    public void setUnlockedCropSlots(int slots) {
+        this.unlockedCropSlots = Math.min(cropField.size(), slots);
+        markDirty();
+        if (journal != null) journalLsn = journal.logUnlockedSlots(owner, unlockedCropSlots);
+    }
 
     public boolean isCropSlotUnlocked(int index) {
         return index < unlockedCropSlots;
     }
     
     // Compost methods
-    public int getCompostProgress() { return compostProgress; }
-    public int getStoredBonemeal() { return storedBonemeal; }
-    public int getCompostResources() { return compostResources; }
+    public int getCompostProgress() { settleCompost(); return compostProgress; }
+    public int getStoredBonemeal() { settleCompost(); return storedBonemeal; }
+    public int getCompostResources() { settleCompost(); return compostResources; }
     
     public void addStoredBonemeal(int amount) {
+        settleCompost();
         this.storedBonemeal += amount;
+        markDirty();
+        journalCompost();
     }
     
     public void addCompostResource(int amount) {
+        settleCompost();
         this.compostResources += amount;
+        markDirty();
+        journalCompost();
     }
     
-    public void tickCompost() {
-        // Base rate: 1 progress per tick, +1 per resource (max 10)
-        int rate = 1 + Math.min(compostResources, 10);
-        compostProgress += rate;
-        
-        if (compostProgress >= 100) {
-            storedBonemeal++;
-            compostProgress = 0;
-            if (compostResources > 0) compostResources--;
+    /**
+     * Bring the compost bin up to the current game time.
+     * The bin makes one step of progress per crop sweep interval; steps
+     * since the last settle are applied at once, so nothing needs to
+     * tick the bin. While the owner is offline the bin only runs for
+     * {@link EstateConfig#MAX_OFFLINE_CATCHUP} after they left, however
+     * often the estate is read.
+     */
+    public void settleCompost() {
+        long interval = Math.max(1, EstateConfig.CROP_GROWTH_INTERVAL);
+        long until = PocketEstate.getGameTime();
+        if (!ownerOnline) {
+            until = lastActiveTick > 0 ? Math.min(until, lastActiveTick + EstateConfig.MAX_OFFLINE_CATCHUP) : compostSettledAt;
         }
+        long sweeps = (until - compostSettledAt) / interval;
+        if (sweeps <= 0) return;
+        compostSettledAt += sweeps * interval;
+        advanceCompost(sweeps);
     }
     
+    /**
+     * Drop compost time before the given game time (the uncredited rest of an offline period)
+     */
+    public void skipCompostBefore(long tick) {
+        if (compostSettledAt < tick) {
+            compostSettledAt = tick;
+            markDirty();
+        }
+    }
+    
+    /**
+     * Advance the compost bin by many steps at once in O(1): finish the
+     * bonemeal in progress, then consume resources at the capped rate,
+     * then step through the last few resource levels, then run at the
+     * base rate
+     */
+    private void advanceCompost(long sweeps) {
+        if (sweeps <= 0) return;
+        markDirty();
+
+        // Finish the bonemeal already in progress
+        int rate = 1 + Math.min(compostResources, 10);
+        long toFinish = Math.max(1, (100 - compostProgress + rate - 1) / rate);
+        if (sweeps < toFinish) {
+            compostProgress += (int) (sweeps * rate);
+            return;
+        }
+        sweeps -= toFinish;
+        finishBonemeal();
+
+        // Above 10 resources the rate is capped at 11: 10 sweeps per bonemeal
+        if (compostResources > 10) {
+            long batches = Math.min(compostResources - 10, sweeps / 10);
+            storedBonemeal += (int) batches;
+            compostResources -= (int) batches;
+            sweeps -= batches * 10;
+            if (compostResources > 10) {
+                compostProgress = (int) (sweeps * 11);
+                return;
+            }
+        }
+
+        // Each remaining resource level produces one bonemeal (at most 10 steps)
+        while (compostResources > 0) {
+            rate = 1 + compostResources;
+            long perBonemeal = (100 + rate - 1) / rate;
+            if (sweeps < perBonemeal) {
+                compostProgress = (int) (sweeps * rate);
+                return;
+            }
+            sweeps -= perBonemeal;
+            finishBonemeal();
+        }
+
+        // No resources left: base rate of 1 per sweep
+        storedBonemeal += (int) (sweeps / 100);
+        compostProgress = (int) (sweeps % 100);
+    }
+
+    private void finishBonemeal() {
+        storedBonemeal++;
+        compostProgress = 0;
+        if (compostResources > 0) compostResources--;
+    }
+
     public boolean useBonemeal(int amount) {
+        settleCompost();
         if (storedBonemeal >= amount) {
             storedBonemeal -= amount;
+            markDirty();
+            journalCompost();
             return true;
         }
         return false;
@@ -160,17 +398,23 @@ public class PlayerData {
     
     // Auto-harvest
     public boolean isAutoHarvestEnabled() { return autoHarvestEnabled; }
-    public void setAutoHarvestEnabled(boolean enabled) { this.autoHarvestEnabled = enabled; }
+    public void setAutoHarvestEnabled(boolean enabled) {
+        this.autoHarvestEnabled = enabled;
+        markDirty();
+        journalSettings();
+        // Crops that are already ready are picked up on the next tick
+        if (enabled && owner != null) VirtualCropManager.scheduleNow(owner);
+    }
     public boolean isAutoFeedPensEnabled() { return autoFeedPensEnabled; }
-    public void setAutoFeedPensEnabled(boolean enabled) { this.autoFeedPensEnabled = enabled; }
+    public void setAutoFeedPensEnabled(boolean enabled) { this.autoFeedPensEnabled = enabled; markDirty(); journalSettings(); }
     
     // Stats
     public long getTotalCropsHarvested() { return totalCropsHarvested; }
     public long getTotalXpEarned() { return totalXpEarned; }
     public long getTotalMoneyEarned() { return totalMoneyEarned; }
-    public void addCropsHarvested(int amount) { this.totalCropsHarvested += amount; }
-    public void addXpEarned(int amount) { this.totalXpEarned += amount; }
-    public void addMoneyEarned(long amount) { this.totalMoneyEarned += amount; }
+    public void addCropsHarvested(int amount) { this.totalCropsHarvested += amount; markDirty(); journalStats(); }
+    public void addXpEarned(int amount) { this.totalXpEarned += amount; markDirty(); journalStats(); }
+    public void addMoneyEarned(long amount) { this.totalMoneyEarned += amount; markDirty(); journalStats(); }
 
     // Mob pen methods
     public Map<PenType, MobPen> getMobPens() { return mobPens; }
@@ -186,14 +430,43 @@ public class PlayerData {
     public void unlockMobPen(PenType type) {
         if (!mobPens.containsKey(type)) {
             mobPens.put(type, new MobPen(type));
+            markPenChanged(type);
+        }
+    }
+
+    /**
+     * Flag a pen as changed (fodder, tool, construction) and journal its whole state
+     */
+    public void markPenChanged(PenType type) {
+        markDirty();
+        MobPen pen = mobPens.get(type);
+        if (journal != null && pen != null) journalLsn = journal.logPen(owner, pen);
+    }
+
+    /**
+     * Apply the result of pen production (server thread only, since it journals).
+     * The pens that used up fodder or tool durability are journaled before the
+     * drops, so a torn journal write can lose drops but never repeat a cycle.
+     */
+    public void addPenProduction(Collection<PenType> producedBy, List<ItemStack> drops) {
+        for (PenType type : producedBy) {
+            markPenChanged(type);
+        }
+        for (ItemStack stack : drops) {
+            addToOutput(stack);
         }
     }
 
     // Output buffer methods (for mob pens)
     public List<ItemStack> getOutputBuffer() { return outputBuffer; }
 
+    /**
+     * Add produced items to the pen output buffer (server thread only, since it journals)
+     */
     public void addToOutput(ItemStack stack) {
         if (stack != null && !stack.isEmpty()) {
+            markDirty();
+            if (journal != null) journalLsn = journal.logOutputAdd(owner, stack.getItem(), stack.getCount());
             // Try to stack with existing items
             for (ItemStack existing : outputBuffer) {
                 if (ItemStack.isSameItemSameComponents(existing, stack)) {
@@ -212,6 +485,19 @@ public class PlayerData {
 
     public void clearOutput() {
         outputBuffer.clear();
+        markDirty();
+        if (journal != null) journalLsn = journal.logOutputClear(owner, EstateJournal.PEN_OUTPUT);
+    }
+
+    /**
+     * Remove a single stack from the output buffer
+     * @return the removed stack, or empty if the index is out of range
+     */
+    public ItemStack removeFromOutput(int index) {
+        if (index < 0 || index >= outputBuffer.size()) return ItemStack.EMPTY;
+        markDirty();
+        if (journal != null) journalLsn = journal.logOutputRemove(owner, EstateJournal.PEN_OUTPUT, index);
+        return outputBuffer.remove(index);
     }
     
     // Crop output buffer methods
@@ -219,6 +505,8 @@ public class PlayerData {
     
     public void addToCropOutput(ItemStack stack) {
         if (stack != null && !stack.isEmpty()) {
+            markDirty();
+            if (journal != null) journalLsn = journal.logCropOutputAdd(owner, stack);
             // Try to stack with existing items
             for (ItemStack existing : cropOutput) {
                 if (ItemStack.isSameItemSameComponents(existing, stack)) {
@@ -235,16 +523,290 @@ public class PlayerData {
         }
     }
     
+    /**
+     * Add a plain (component-free) item to the crop output, filling
+     * existing stacks first; only overflow creates new stacks
+     */
+    public void addToCropOutput(Item item, int count) {
+        if (count <= 0) return;
+        markDirty();
+        if (journal != null) journalLsn = journal.logCropOutputAdd(owner, item, count);
+        for (int i = 0; i < cropOutput.size() && count > 0; i++) {
+            ItemStack existing = cropOutput.get(i);
+            if (existing.is(item) && existing.getComponentsPatch().isEmpty()) {
+                int toAdd = Math.min(count, existing.getMaxStackSize() - existing.getCount());
+                existing.grow(toAdd);
+                count -= toAdd;
+            }
+        }
+        int maxStack = item.getDefaultMaxStackSize();
+        while (count > 0) {
+            int size = Math.min(count, maxStack);
+            cropOutput.add(new ItemStack(item, size));
+            count -= size;
+        }
+    }
+    
     public void clearCropOutput() {
         cropOutput.clear();
+        markDirty();
+        if (journal != null) journalLsn = journal.logOutputClear(owner, EstateJournal.CROP_OUTPUT);
+    }
+
+    /**
+     * Remove a single stack from the crop output buffer
+     * @return the removed stack, or empty if the index is out of range
+     */
+    public ItemStack removeFromCropOutput(int index) {
+        if (index < 0 || index >= cropOutput.size()) return ItemStack.EMPTY;
+        markDirty();
+        if (journal != null) journalLsn = journal.logOutputRemove(owner, EstateJournal.CROP_OUTPUT, index);
+        return cropOutput.remove(index);
     }
     
     public int getCropOutputCount() {
         return cropOutput.stream().mapToInt(ItemStack::getCount).sum();
     }
 
+    /**
+     * Create a detached deep copy of this estate.
+     * The copy shares no mutable state with the original, so it can be
+     * encoded on another thread while the original keeps changing.
+     */
+    public PlayerData copy() {
+        PlayerData copy = new PlayerData();
+        copy.balance = balance;
+        copy.unlockedCropSlots = unlockedCropSlots;
+        copy.cropField = cropField.copy();
+        for (Map.Entry<PenType, MobPen> entry : mobPens.entrySet()) {
+            copy.mobPens.put(entry.getKey(), entry.getValue().copy());
+        }
+        for (ItemStack stack : outputBuffer) {
+            copy.outputBuffer.add(stack.copy());
+        }
+        for (ItemStack stack : cropOutput) {
+            copy.cropOutput.add(stack.copy());
+        }
+        copy.compostProgress = compostProgress;
+        copy.compostResources = compostResources;
+        copy.storedBonemeal = storedBonemeal;
+        copy.compostSettledAt = compostSettledAt;
+        copy.autoHarvestEnabled = autoHarvestEnabled;
+        copy.autoFeedPensEnabled = autoFeedPensEnabled;
+        copy.totalCropsHarvested = totalCropsHarvested;
+        copy.totalXpEarned = totalXpEarned;
+        copy.totalMoneyEarned = totalMoneyEarned;
+        copy.journalLsn = journalLsn;
+        copy.lastActiveTick = lastActiveTick;
+        return copy;
+    }
+
+    /**
+     * Compost was stepped only while online before it was derived from
+     * game time; resume it from when the owner was last active
+     */
+    private static long legacyCompostSettledAt(long lastActiveTick) {
+        return lastActiveTick > 0 ? lastActiveTick : PocketEstate.getGameTime();
+    }
+
+    // Binary serialization (see PlayerDataCodec for the shard header)
+    private static final int FLAG_AUTO_HARVEST = 1;
+    private static final int FLAG_AUTO_FEED = 2;
+
+    void writeBinary(DataOutput out, HolderLookup.Provider registries) throws IOException {
+        VarInt.writeSignedVarLong(out, balance);
+        VarInt.writeVarInt(out, unlockedCropSlots);
+        VarInt.writeVarInt(out, compostProgress);
+        VarInt.writeVarInt(out, compostResources);
+        VarInt.writeVarInt(out, storedBonemeal);
+        out.writeByte(settingsFlags());
+        VarInt.writeVarLong(out, totalCropsHarvested);
+        VarInt.writeVarLong(out, totalXpEarned);
+        VarInt.writeVarLong(out, totalMoneyEarned);
+        VarInt.writeVarLong(out, journalLsn);
+        VarInt.writeSignedVarLong(out, lastActiveTick);
+        VarInt.writeSignedVarLong(out, compostSettledAt);
+
+        // Plots: only up to the last non-empty one, as runs of identical plots
+        int plotCount = 0;
+        for (int i = 0; i < cropField.size(); i = cropField.runEnd(i, cropField.size())) {
+            if (!cropField.isEmpty(i) || cropField.getHarvestCount(i) > 0) {
+                plotCount = cropField.runEnd(i, cropField.size());
+            }
+        }
+        VarInt.writeVarInt(out, plotCount);
+        for (int i = 0, end; i < plotCount; i = end) {
+            end = cropField.runEnd(i, plotCount);
+            VarInt.writeVarInt(out, end - i);
+            CropType type = cropField.getCropType(i);
+            out.writeByte(type != null ? type.ordinal() + 1 : 0);
+            if (type != null) VarInt.writeSignedVarLong(out, cropField.getGrowthStart(i));
+            VarInt.writeVarInt(out, cropField.getHarvestCount(i));
+        }
+
+        out.writeByte(mobPens.size());
+        for (MobPen pen : mobPens.values()) {
+            out.writeByte(pen.getPenType().ordinal());
+            pen.writeBinary(out, registries);
+        }
+
+        // Items are written once in a palette, stacks refer to them by index
+        ItemPalette palette = new ItemPalette();
+        int[] outputItems = indexStacks(palette, outputBuffer);
+        int[] cropOutputItems = indexStacks(palette, cropOutput);
+        palette.write(out);
+        writeStacks(out, outputBuffer, outputItems);
+        writeStacks(out, cropOutput, cropOutputItems);
+    }
+
+    static PlayerData readBinary(DataInput in, int version, HolderLookup.Provider registries) throws IOException {
+        PlayerData data = new PlayerData();
+        data.balance = VarInt.readSignedVarLong(in);
+        data.unlockedCropSlots = VarInt.readVarInt(in);
+        data.compostProgress = VarInt.readVarInt(in);
+        data.compostResources = VarInt.readVarInt(in);
+        data.storedBonemeal = VarInt.readVarInt(in);
+        int flags = in.readUnsignedByte();
+        data.autoHarvestEnabled = (flags & FLAG_AUTO_HARVEST) != 0;
+        data.autoFeedPensEnabled = (flags & FLAG_AUTO_FEED) != 0;
+        data.totalCropsHarvested = VarInt.readVarLong(in);
+        data.totalXpEarned = VarInt.readVarLong(in);
+        data.totalMoneyEarned = VarInt.readVarLong(in);
+        data.journalLsn = VarInt.readVarLong(in);
+        if (version >= 5) {
+            data.lastActiveTick = VarInt.readSignedVarLong(in);
+        }
+        data.compostSettledAt = version >= 6
+            ? VarInt.readSignedVarLong(in)
+            : legacyCompostSettledAt(data.lastActiveTick);
+
+        if (version >= 7) {
+            readPlotRuns(in, data.cropField);
+        } else {
+            readPlotBitmaps(in, version, data.cropField);
+        }
+
+        PenType[] penTypes = PenType.values();
+        int penCount = in.readUnsignedByte();
+        for (int i = 0; i < penCount; i++) {
+            int ordinal = in.readUnsignedByte();
+            if (ordinal >= penTypes.length) {
+                throw new IOException("Unknown pen type " + ordinal);
+            }
+            data.mobPens.put(penTypes[ordinal], MobPen.readBinary(in, penTypes[ordinal], version, registries));
+        }
+
+        if (version >= 2) {
+            ItemPalette palette = ItemPalette.read(in);
+            readStacks(in, palette, data.outputBuffer);
+            readStacks(in, palette, data.cropOutput);
+        } else {
+            readKeyedStacks(in, data.outputBuffer);
+            readKeyedStacks(in, data.cropOutput);
+        }
+        return data;
+    }
+
+    /**
+     * Read plots written as runs (version 7 and later); plots beyond the field are dropped
+     */
+    private static void readPlotRuns(DataInput in, CropField field) throws IOException {
+        int plotCount = VarInt.readVarInt(in);
+        CropType[] cropTypes = CropType.values();
+        for (int i = 0; i < plotCount; ) {
+            int length = VarInt.readVarInt(in);
+            if (length <= 0) throw new IOException("Invalid plot run length " + length);
+            int crop = in.readUnsignedByte();
+            long growthStart = crop != 0 ? VarInt.readSignedVarLong(in) : 0;
+            int harvestCount = VarInt.readVarInt(in);
+            CropType type = crop > 0 && crop <= cropTypes.length ? cropTypes[crop - 1] : null;
+            if (i < field.size()) {
+                field.setRange(i, Math.min(length, field.size() - i), type, growthStart, harvestCount);
+            }
+            i += length;
+        }
+    }
+
+    /**
+     * Read plots written one by one with planted/harvested bitmaps (before version 7)
+     */
+    private static void readPlotBitmaps(DataInput in, int version, CropField field) throws IOException {
+        int plotCount = VarInt.readVarInt(in);
+        byte[] planted = new byte[(plotCount + 7) >> 3];
+        byte[] harvested = new byte[planted.length];
+        in.readFully(planted);
+        in.readFully(harvested);
+        CropType[] cropTypes = CropType.values();
+        for (int i = 0; i < plotCount; i++) {
+            CropType type = null;
+            long growthStart = 0;
+            int harvestCount = 0;
+            if ((planted[i >> 3] & (1 << (i & 7))) != 0) {
+                int ordinal = in.readUnsignedByte();
+                growthStart = version >= 4
+                    ? VarInt.readSignedVarLong(in)
+                    : CropPlot.growthStartFromProgress(VarInt.readVarInt(in));
+                if (ordinal < cropTypes.length) type = cropTypes[ordinal];
+            }
+            if ((harvested[i >> 3] & (1 << (i & 7))) != 0) {
+                harvestCount = VarInt.readVarInt(in);
+            }
+            if (i < field.size()) {
+                field.set(i, type, growthStart, harvestCount);
+            }
+        }
+    }
+
+    /**
+     * @return palette index per stack, -1 for empty stacks
+     */
+    private static int[] indexStacks(ItemPalette palette, List<ItemStack> stacks) {
+        int[] indices = new int[stacks.size()];
+        for (int i = 0; i < stacks.size(); i++) {
+            ItemStack stack = stacks.get(i);
+            indices[i] = stack.isEmpty() ? -1 : palette.indexOf(stack.getItem());
+        }
+        return indices;
+    }
+
+    private static void writeStacks(DataOutput out, List<ItemStack> stacks, int[] indices) throws IOException {
+        int count = 0;
+        for (int index : indices) {
+            if (index >= 0) count++;
+        }
+        VarInt.writeVarInt(out, count);
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] < 0) continue;
+            VarInt.writeVarInt(out, indices[i]);
+            VarInt.writeVarInt(out, stacks.get(i).getCount());
+        }
+    }
+
+    private static void readStacks(DataInput in, ItemPalette palette, List<ItemStack> into) throws IOException {
+        int count = VarInt.readVarInt(in);
+        for (int i = 0; i < count; i++) {
+            Item item = palette.get(VarInt.readVarInt(in));
+            int amount = VarInt.readVarInt(in);
+            if (item != null && item != Items.AIR) {
+                into.add(new ItemStack(item, amount));
+            }
+        }
+    }
+
+    // Version 1 shards wrote the registry key with every stack
+    private static void readKeyedStacks(DataInput in, List<ItemStack> into) throws IOException {
+        int count = VarInt.readVarInt(in);
+        for (int i = 0; i < count; i++) {
+            Item item = PlayerDataCodec.resolveItem(in.readUTF());
+            int amount = VarInt.readVarInt(in);
+            if (item != null && item != Items.AIR) {
+                into.add(new ItemStack(item, amount));
+            }
+        }
+    }
+
     // NBT serialization
-    public CompoundTag toNBT() {
+    public CompoundTag toNBT(HolderLookup.Provider registries) {
         CompoundTag tag = new CompoundTag();
         tag.putLong("balance", balance);
         tag.putInt("unlockedCropSlots", unlockedCropSlots);
@@ -262,51 +824,68 @@ public class PlayerData {
         tag.putLong("totalCropsHarvested", totalCropsHarvested);
         tag.putLong("totalXpEarned", totalXpEarned);
         tag.putLong("totalMoneyEarned", totalMoneyEarned);
+        tag.putLong("journalLsn", journalLsn);
+        tag.putLong("lastActiveTick", lastActiveTick);
+        tag.putLong("compostSettledAt", compostSettledAt);
 
-        // Save crop plots
+        // Save crop plots, one tag per run of identical plots
         ListTag cropsTag = new ListTag();
-        for (CropPlot plot : cropPlots) {
-            cropsTag.add(plot.toNBT());
+        for (int i = 0, end; i < cropField.size(); i = end) {
+            end = cropField.runEnd(i, cropField.size());
+            CompoundTag runTag = cropField.plot(i).toNBT();
+            runTag.putInt("length", end - i);
+            cropsTag.add(runTag);
         }
-        tag.put("cropPlots", cropsTag);
+        tag.put("cropRuns", cropsTag);
 
         // Save mob pens
         CompoundTag pensTag = new CompoundTag();
         for (Map.Entry<PenType, MobPen> entry : mobPens.entrySet()) {
-            pensTag.put(entry.getKey().name(), entry.getValue().toNBT());
+            pensTag.put(entry.getKey().name(), entry.getValue().toNBT(registries));
         }
         tag.put("mobPens", pensTag);
 
-        // Save output buffer
-        ListTag outputTag = new ListTag();
-        for (ItemStack stack : outputBuffer) {
-            if (!stack.isEmpty()) {
-                CompoundTag itemTag = new CompoundTag();
-                String itemId = getItemId(stack.getItem());
-                itemTag.putString("id", itemId);
-                itemTag.putInt("count", stack.getCount());
-                outputTag.add(itemTag);
-            }
-        }
-        tag.put("outputBuffer", outputTag);
-        
-        // Save crop output buffer
-        ListTag cropOutputTag = new ListTag();
-        for (ItemStack stack : cropOutput) {
+        // Save output buffers against a shared item palette
+        ItemPalette palette = new ItemPalette();
+        tag.put("outputBuffer", stacksToNBT(palette, outputBuffer));
+        tag.put("cropOutputBuffer", stacksToNBT(palette, cropOutput));
+        tag.put("itemPalette", palette.toNBT());
+
+        return tag;
+    }
+
+    private static ListTag stacksToNBT(ItemPalette palette, List<ItemStack> stacks) {
+        ListTag list = new ListTag();
+        for (ItemStack stack : stacks) {
             if (!stack.isEmpty()) {
                 CompoundTag itemTag = new CompoundTag();
-                String itemId = getItemId(stack.getItem());
-                itemTag.putString("id", itemId);
+                itemTag.putInt("item", palette.indexOf(stack.getItem()));
                 itemTag.putInt("count", stack.getCount());
-                cropOutputTag.add(itemTag);
+                list.add(itemTag);
             }
         }
-        tag.put("cropOutputBuffer", cropOutputTag);
+        return list;
+    }
 
-        return tag;
+    private static void stacksFromNBT(ListTag list, ItemPalette palette, List<ItemStack> into) {
+        for (int i = 0; i < list.size(); i++) {
+            list.getCompound(i).ifPresent(itemTag -> {
+                Item item;
+                if (itemTag.contains("item")) {
+                    item = palette.get(itemTag.getInt("item").orElse(-1));
+                } else {
+                    // Older files stored a bare item name ("wheat"), which parses as minecraft:wheat
+                    item = PlayerDataCodec.resolveItem(itemTag.getString("id").orElse(""));
+                }
+                int count = itemTag.getInt("count").orElse(1);
+                if (item != null && item != Items.AIR) {
+                    into.add(new ItemStack(item, count));
+                }
+            });
+        }
     }
 
-    public static PlayerData fromNBT(CompoundTag tag) {
+    public static PlayerData fromNBT(CompoundTag tag, HolderLookup.Provider registries) {
         PlayerData data = new PlayerData();
 
         data.balance = tag.getLong("balance").orElse(1000L);
@@ -325,17 +904,30 @@ public class PlayerData {
         data.totalCropsHarvested = tag.getLong("totalCropsHarvested").orElse(0L);
         data.totalXpEarned = tag.getLong("totalXpEarned").orElse(0L);
         data.totalMoneyEarned = tag.getLong("totalMoneyEarned").orElse(0L);
+        data.journalLsn = tag.getLong("journalLsn").orElse(0L);
+        data.lastActiveTick = tag.getLong("lastActiveTick").orElse(0L);
+        data.compostSettledAt = tag.getLong("compostSettledAt")
+            .orElseGet(() -> legacyCompostSettledAt(data.lastActiveTick));
 
-        // Load crop plots
-        if (tag.contains("cropPlots")) {
+        // Load crop plots, saved as runs or (older versions) one tag per plot
+        CropField field = data.cropField;
+        if (tag.contains("cropRuns")) {
+            ListTag runsTag = tag.getList("cropRuns").orElse(new ListTag());
+            int index = 0;
+            for (int i = 0; i < runsTag.size() && index < field.size(); i++) {
+                CompoundTag runTag = runsTag.getCompound(i).orElse(null);
+                if (runTag == null) continue;
+                int length = Math.min(runTag.getInt("length").orElse(1), field.size() - index);
+                if (length <= 0) continue;
+                field.plot(index).loadNBT(runTag);
+                field.setRange(index + 1, length - 1, field.getCropType(index),
+                    field.getGrowthStart(index), field.getHarvestCount(index));
+                index += length;
+            }
+        } else if (tag.contains("cropPlots")) {
             ListTag cropsTag = tag.getList("cropPlots").orElse(new ListTag());
-            for (int i = 0; i < Math.min(cropsTag.size(), MAX_CROP_PLOTS); i++) {
-                final int slotIndex = i;
-                cropsTag.getCompound(i).ifPresent(plotTag -> {
-                    if (slotIndex < data.cropPlots.size()) {
-                        data.cropPlots.set(slotIndex, CropPlot.fromNBT(plotTag));
-                    }
-                });
+            for (int i = 0; i < Math.min(cropsTag.size(), field.size()); i++) {
+                cropsTag.getCompound(i).ifPresent(field.plot(i)::loadNBT);
             }
         }
 
@@ -345,46 +937,17 @@ public class PlayerData {
                 for (PenType type : PenType.values()) {
                     if (pensTag.contains(type.name())) {
                         pensTag.getCompound(type.name()).ifPresent(penTag -> {
-                            data.mobPens.put(type, MobPen.fromNBT(penTag, type));
+                            data.mobPens.put(type, MobPen.fromNBT(penTag, type, registries));
                         });
                     }
                 }
             });
         }
 
-        // Load output buffer  
-        if (tag.contains("outputBuffer")) {
-            ListTag outputTag = tag.getList("outputBuffer").orElse(new ListTag());
-            for (int i = 0; i < outputTag.size(); i++) {
-                outputTag.getCompound(i).ifPresent(itemTag -> {
-                    String id = itemTag.getString("id").orElse("");
-                    int count = itemTag.getInt("count").orElse(1);
-                    if (!id.isEmpty()) {
-                        Item item = getItemById(id);
-                        if (item != Items.AIR) {
-                            data.outputBuffer.add(new ItemStack(item, count));
-                        }
-                    }
-                });
-            }
-        }
-        
-        // Load crop output buffer  
-        if (tag.contains("cropOutputBuffer")) {
-            ListTag cropOutputTag = tag.getList("cropOutputBuffer").orElse(new ListTag());
-            for (int i = 0; i < cropOutputTag.size(); i++) {
-                cropOutputTag.getCompound(i).ifPresent(itemTag -> {
-                    String id = itemTag.getString("id").orElse("");
-                    int count = itemTag.getInt("count").orElse(1);
-                    if (!id.isEmpty()) {
-                        Item item = getItemById(id);
-                        if (item != Items.AIR) {
-                            data.cropOutput.add(new ItemStack(item, count));
-                        }
-                    }
-                });
-            }
-        }
+        // Load output buffers
+        ItemPalette palette = ItemPalette.fromNBT(tag.getList("itemPalette").orElse(new ListTag()));
+        stacksFromNBT(tag.getList("outputBuffer").orElse(new ListTag()), palette, data.outputBuffer);
+        stacksFromNBT(tag.getList("cropOutputBuffer").orElse(new ListTag()), palette, data.cropOutput);
 
         return data;
     }
@@ -0,0 +1,91 @@
+package com.pocketestate.data;
+
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.resources.Identifier;
+import net.minecraft.world.item.Item;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Compact binary shard format for a single estate.
+ *
+ * Layout: magic, schema version, owner UUID (two longs), then the
+ * estate body written by {@link PlayerData#writeBinary}. Numbers are
+ * varints, plots are stored as runs of identical plots, crops by ordinal
+ * and items by index into a per-file {@link ItemPalette}, so an estate is
+ * a few hundred bytes instead of one CompoundTag per plot.
+ *
+ * Shards written in the older gzip NBT format are still readable;
+ * {@link #read} tells the two apart by the leading magic.
+ */
+public final class PlayerDataCodec {
+    static final int MAGIC = 0x50455354; // "PEST"
+    // 2: item palette for output buffers, 3: full pen tool stacks, 4: plot growth start times,
+    // 5: last active tick for offline catch-up, 6: compost settle time, 7: plots as runs
+    static final int VERSION = 7;
+
+    private PlayerDataCodec() {}
+
+    public static void write(Path file, UUID owner, PlayerData data, HolderLookup.Provider registries) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeLong(owner.getMostSignificantBits());
+            out.writeLong(owner.getLeastSignificantBits());
+            data.writeBinary(out, registries);
+        }
+    }
+
+    /**
+     * Read a shard in either the binary or the legacy NBT format
+     */
+    public static PlayerData read(Path file, UUID expectedOwner, HolderLookup.Provider registries) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            in.mark(4);
+            DataInputStream data = new DataInputStream(in);
+            int magic = data.readInt();
+            if (magic != MAGIC) {
+                in.reset();
+                CompoundTag tag = NbtIo.readCompressed(in, NbtAccounter.unlimitedHeap());
+                return PlayerData.fromNBT(tag, registries);
+            }
+
+            int version = data.readUnsignedByte();
+            if (version > VERSION) {
+                throw new IOException("Unsupported estate format version " + version);
+            }
+            UUID owner = new UUID(data.readLong(), data.readLong());
+            if (!owner.equals(expectedOwner)) {
+                throw new IOException("Shard belongs to " + owner + ", expected " + expectedOwner);
+            }
+            return PlayerData.readBinary(data, version, registries);
+        }
+    }
+
+    public static void writeItemKey(DataOutput out, Item item) throws IOException {
+        out.writeUTF(BuiltInRegistries.ITEM.getKey(item).toString());
+    }
+
+    /**
+     * Look up an item by registry key
+     * @return the item, or null if the key is unknown (e.g. a removed mod)
+     */
+    public static Item resolveItem(String key) {
+        Identifier id = Identifier.tryParse(key);
+        if (id == null) return null;
+        return BuiltInRegistries.ITEM.getOptional(id).orElse(null);
+    }
+}
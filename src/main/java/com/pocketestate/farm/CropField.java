@@ -0,0 +1,315 @@
+package com.pocketestate.farm;
+
+import com.pocketestate.config.EstateConfig;
+
+/**
+ * Storage for all crop plots of one estate
+ *
+ * Each plot's state packs into a single long:
+ *   bits 0-5    crop ordinal + 1 (0 = empty)
+ *   bits 6-27   harvest count (saturates at {@link #MAX_HARVEST_COUNT})
+ *   bits 28-63  growth start game time, signed
+ *
+ * Two layouts exist: {@link PackedCropField} keeps one long per plot
+ * with bit masks for planted and ready plots, {@link RunLengthCropField}
+ * keeps runs of identical consecutive plots so very large fields cost
+ * memory and time per run rather than per plot. {@link #create} picks
+ * one from the config.
+ *
+ * Plots are read and written through {@link CropPlot} views or the
+ * index-based accessors below. The bulk operations (harvest, bonemeal,
+ * plant) walk runs of identical plots via {@link #runEnd} and report
+ * each changed range once, so callers never need per-plot loops.
+ */
+public abstract class CropField {
+    private static final int CROP_BITS = 6;
+    private static final int HARVEST_BITS = 22;
+    private static final int START_SHIFT = CROP_BITS + HARVEST_BITS;
+    private static final long CROP_MASK = (1L << CROP_BITS) - 1;
+    private static final long HARVEST_MASK = (1L << HARVEST_BITS) - 1;
+
+    public static final int MAX_HARVEST_COUNT = (int) HARVEST_MASK;
+    // Growth start range (36 signed bits, about 54 years of game time either way)
+    private static final long MAX_START = (1L << (63 - START_SHIFT)) - 1;
+    private static final long MIN_START = -(1L << (63 - START_SHIFT));
+
+    private static final CropType[] CROP_TYPES = CropType.values();
+    private static final long[] GROWTH_TIMES = new long[CROP_TYPES.length + 1]; // By packed crop value
+    static {
+        for (CropType type : CROP_TYPES) {
+            GROWTH_TIMES[type.ordinal() + 1] = type.getGrowthTime();
+        }
+    }
+
+    /**
+     * Receives each range of identical plots changed by a bulk operation
+     */
+    @FunctionalInterface
+    public interface RangeConsumer {
+        void accept(int from, int count);
+    }
+
+    /**
+     * Receives each range of identical plots harvested by {@link #harvestReady}
+     */
+    public interface HarvestSink {
+        void accept(int from, int count, CropType type, int yield);
+    }
+
+    /**
+     * New empty field in the layout chosen by {@link EstateConfig#RUN_LENGTH_FIELDS}
+     */
+    public static CropField create(int size) {
+        return EstateConfig.RUN_LENGTH_FIELDS ? new RunLengthCropField(size) : new PackedCropField(size);
+    }
+
+    // Packing
+
+    static long pack(CropType type, long growthStart, int harvestCount) {
+        long crop = type != null ? type.ordinal() + 1 : 0;
+        long start = type != null ? Math.max(MIN_START, Math.min(MAX_START, growthStart)) : 0;
+        long harvests = Math.max(0, Math.min(harvestCount, MAX_HARVEST_COUNT));
+        return crop | (harvests << CROP_BITS) | (start << START_SHIFT);
+    }
+
+    static CropType cropOf(long packed) {
+        int crop = (int) (packed & CROP_MASK);
+        return crop == 0 || crop > CROP_TYPES.length ? null : CROP_TYPES[crop - 1];
+    }
+
+    static boolean isPlanted(long packed) {
+        return (packed & CROP_MASK) != 0;
+    }
+
+    static long startOf(long packed) {
+        return packed >> START_SHIFT;
+    }
+
+    static int harvestOf(long packed) {
+        return (int) ((packed >>> CROP_BITS) & HARVEST_MASK);
+    }
+
+    /**
+     * Ready time of a packed plot, or Long.MAX_VALUE if empty
+     */
+    static long readyTimeOf(long packed) {
+        int crop = (int) (packed & CROP_MASK);
+        if (crop == 0 || crop >= GROWTH_TIMES.length) return Long.MAX_VALUE;
+        return startOf(packed) + GROWTH_TIMES[crop];
+    }
+
+    // Layout
+
+    public abstract int size();
+
+    /**
+     * Packed state of one plot
+     */
+    abstract long get(int index);
+
+    /**
+     * Overwrite {@code count} plots starting at {@code from} with one packed state
+     */
+    abstract void fill(int from, int count, long packed);
+
+    /**
+     * Same as {@link #fill}, used by the bulk operations for ranges that
+     * usually cover a whole run; a layout may put off tidying up after
+     * such writes until {@link #endBulk}
+     */
+    void fillRun(int from, int count, long packed) {
+        fill(from, count, packed);
+    }
+
+    /**
+     * Called once after the last {@link #fillRun} of a bulk operation
+     */
+    void endBulk() {}
+
+    /**
+     * End (exclusive, capped at {@code limit}) of the run of plots identical to {@code index}
+     */
+    public abstract int runEnd(int index, int limit);
+
+    /**
+     * Number of planted plots among the first {@code limit}
+     */
+    public abstract int countPlanted(int limit);
+
+    /**
+     * Number of ready plots among the first {@code limit}
+     */
+    public abstract int countReady(int limit, long now);
+
+    /**
+     * Index of the first ready plot at or after {@code from} and below {@code limit}, or -1
+     */
+    public abstract int nextReady(int from, int limit, long now);
+
+    /**
+     * Index of the first empty plot at or after {@code from} and below {@code limit}, or -1
+     */
+    public abstract int nextEmpty(int from, int limit);
+
+    /**
+     * Index of the first planted but not yet ready plot at or after {@code from} and below {@code limit}, or -1
+     */
+    public abstract int nextGrowing(int from, int limit, long now);
+
+    /**
+     * Independent copy of this field in the same layout
+     */
+    public abstract CropField copy();
+
+    // Plots
+
+    /**
+     * Get a view of one plot; it reads and writes this field directly
+     */
+    public CropPlot plot(int index) {
+        return new CropPlot(this, index);
+    }
+
+    public CropType getCropType(int index) {
+        return cropOf(get(index));
+    }
+
+    public boolean isEmpty(int index) {
+        return !isPlanted(get(index));
+    }
+
+    public long getGrowthStart(int index) {
+        return startOf(get(index));
+    }
+
+    /**
+     * Game time at which the plot's crop is (or was) fully grown, or Long.MAX_VALUE if empty
+     */
+    public long getReadyTime(int index) {
+        return readyTimeOf(get(index));
+    }
+
+    public boolean isReady(int index, long now) {
+        return now >= getReadyTime(index);
+    }
+
+    public int getHarvestCount(int index) {
+        return harvestOf(get(index));
+    }
+
+    /**
+     * Overwrite a plot; an empty plot (null type) keeps only its harvest count
+     */
+    public void set(int index, CropType type, long growthStart, int harvestCount) {
+        fill(index, 1, pack(type, growthStart, harvestCount));
+    }
+
+    /**
+     * Overwrite {@code count} consecutive plots with the same state
+     */
+    public void setRange(int from, int count, CropType type, long growthStart, int harvestCount) {
+        if (count > 0) fill(from, count, pack(type, growthStart, harvestCount));
+    }
+
+    /**
+     * Harvest a plot if it is ready
+     * @param replant whether to start growing the same crop again
+     * @return the yield, or 0 if not ready
+     */
+    public int harvest(int index, boolean replant, long now) {
+        CropType type = getCropType(index);
+        if (type == null || now < getReadyTime(index)) return 0;
+        set(index, replant ? type : null, now, getHarvestCount(index) + 1);
+        return type.getBaseYield();
+    }
+
+    /**
+     * Number of empty plots among the first {@code limit}
+     */
+    public int countEmpty(int limit) {
+        return Math.min(limit, size()) - countPlanted(limit);
+    }
+
+    /**
+     * Number of planted but not yet ready plots among the first {@code limit}
+     */
+    public int countGrowing(int limit, long now) {
+        return countPlanted(limit) - countReady(limit, now);
+    }
+
+    // Bulk operations, one step per run
+
+    /**
+     * Harvest every ready plot among the first {@code limit}
+     * @return the number of plots harvested
+     */
+    public int harvestReady(int limit, long now, boolean replant, HarvestSink sink) {
+        int harvested = 0;
+        try {
+            int from = nextReady(0, limit, now);
+            while (from >= 0) {
+                int end = runEnd(from, limit);
+                int count = end - from;
+                long packed = get(from);
+                CropType type = cropOf(packed);
+                fillRun(from, count, pack(replant ? type : null, now, harvestOf(packed) + 1));
+                sink.accept(from, count, type, type.getBaseYield() * count);
+                harvested += count;
+                from = nextReady(end, limit, now);
+            }
+        } finally {
+            endBulk();
+        }
+        return harvested;
+    }
+
+    /**
+     * Bonemeal every growing plot among the first {@code limit}: each
+     * one's growth start moves back by a quarter of its remaining time
+     * (at least one tick)
+     * @return the number of plots boosted
+     */
+    public int boostGrowing(int limit, long now, RangeConsumer changed) {
+        int boosted = 0;
+        try {
+            int from = nextGrowing(0, limit, now);
+            while (from >= 0) {
+                int end = runEnd(from, limit);
+                long packed = get(from);
+                CropType type = cropOf(packed);
+                long growthTime = type.getGrowthTime();
+                long start = startOf(packed);
+                long remaining = Math.min(growthTime, start + growthTime - now);
+                long boostedStart = Math.max(start - Math.max(1, remaining / 4), now - growthTime);
+                fillRun(from, end - from, pack(type, boostedStart, harvestOf(packed)));
+                changed.accept(from, end - from);
+                boosted += end - from;
+                from = nextGrowing(end, limit, now);
+            }
+        } finally {
+            endBulk();
+        }
+        return boosted;
+    }
+
+    /**
+     * Plant a crop in up to {@code max} empty plots among the first {@code limit}
+     * @return the number of plots planted
+     */
+    public int plantEmpty(CropType type, int limit, int max, long now, RangeConsumer changed) {
+        int planted = 0;
+        try {
+            int from = nextEmpty(0, limit);
+            while (from >= 0 && planted < max) {
+                int end = Math.min(runEnd(from, limit), from + (max - planted));
+                fillRun(from, end - from, pack(type, now, getHarvestCount(from)));
+                changed.accept(from, end - from);
+                planted += end - from;
+                from = nextEmpty(end, limit);
+            }
+        } finally {
+            endBulk();
+        }
+        return planted;
+    }
+}
@@ -1,35 +1,57 @@
 package com.pocketestate.farm;
 
+import com.pocketestate.PocketEstate;
 import net.minecraft.nbt.CompoundTag;
 
 /**
- * Represents a single crop plot in the virtual garden
- * Updated with tick-based growth and bonemeal boost support
+ * View of a single crop plot in the virtual garden
+ *
+ * The plot's state lives packed in its estate's {@link CropField}; this
+ * object only remembers the index, so views are cheap to create and every
+ * change writes straight through to the field.
+ *
+ * Growth is not ticked: the plot stores the game time growth started
+ * (moved earlier by bonemeal) and progress is derived from the current
+ * game time whenever it is read.
  */
 public class CropPlot {
-    private CropType cropType;
-    private int growthProgress; // Ticks of growth completed
-    private int harvestCount;
-    private boolean isPlanted;
+    private final CropField field;
+    private final int index;
 
-    public CropPlot() {
-        this.cropType = null;
-        this.growthProgress = 0;
-        this.harvestCount = 0;
-        this.isPlanted = false;
+    CropPlot(CropField field, int index) {
+        this.field = field;
+        this.index = index;
     }
 
     // Getters
-    public CropType getCropType() { return cropType; }
-    public int getGrowthProgress() { return growthProgress; }
-    public int getHarvestCount() { return harvestCount; }
-    public boolean isPlanted() { return isPlanted; }
+    public int getIndex() { return index; }
+    public CropType getCropType() { return field.getCropType(index); }
+    public long getGrowthStart() { return field.getGrowthStart(index); }
+    public int getHarvestCount() { return field.getHarvestCount(index); }
+    public boolean isPlanted() { return !field.isEmpty(index); }
+
+    /**
+     * Ticks of growth completed, capped at the crop's growth time
+     */
+    public int getGrowthProgress() {
+        CropType cropType = getCropType();
+        if (cropType == null) return 0;
+        long elapsed = PocketEstate.getGameTime() - getGrowthStart();
+        return (int) Math.max(0, Math.min(elapsed, cropType.getGrowthTime()));
+    }
+
+    /**
+     * Game time at which this crop is (or was) fully grown
+     */
+    public long getReadyTime() {
+        return field.getReadyTime(index);
+    }
 
     /**
      * Check if the crop is fully grown (alias for isFullyGrown)
      */
     public boolean isReady() {
-        return isPlanted && cropType != null && growthProgress >= cropType.getGrowthTime();
+        return PocketEstate.getGameTime() >= getReadyTime();
     }
 
     /**
@@ -43,56 +65,34 @@ public class CropPlot {
      * Check if this plot is empty (no crop planted)
      */
     public boolean isEmpty() {
-        return !isPlanted || cropType == null;
+        return field.isEmpty(index);
     }
 
     /**
      * Plant a crop in this plot
      */
     public void plant(CropType type) {
-        this.cropType = type;
-        this.growthProgress = 0;
-        this.isPlanted = true;
-    }
-
-    /**
-     * Tick-based growth - called every game tick
-     */
-    public void tick() {
-        if (isPlanted && cropType != null && !isReady()) {
-            growthProgress++;
-        }
-    }
-
-    /**
-     * Advance growth by one stage (legacy)
-     * @return true if growth occurred
-     */
-    public boolean grow() {
-        if (!isPlanted || cropType == null) return false;
-        if (isReady()) return false;
-
-        growthProgress += 20; // Add roughly 1 second worth of growth
-        return true;
+        field.set(index, type, PocketEstate.getGameTime(), getHarvestCount());
     }
     
     /**
      * Get remaining growth time in ticks
      */
     public int getGrowthTimeRemaining() {
+        CropType cropType = getCropType();
         if (cropType == null || isReady()) return 0;
-        return Math.max(0, cropType.getGrowthTime() - growthProgress);
+        return Math.max(0, cropType.getGrowthTime() - getGrowthProgress());
     }
     
     /**
      * Boost growth by a number of ticks
      */
     public void boostGrowth(int ticks) {
-        if (isPlanted && cropType != null && !isReady()) {
-            growthProgress += ticks;
-            if (growthProgress > cropType.getGrowthTime()) {
-                growthProgress = cropType.getGrowthTime();
-            }
+        CropType cropType = getCropType();
+        if (cropType != null && !isReady()) {
+            // Never move the start further back than "just became ready"
+            long growthStart = Math.max(getGrowthStart() - ticks, PocketEstate.getGameTime() - cropType.getGrowthTime());
+            field.set(index, cropType, growthStart, getHarvestCount());
         }
     }
     
@@ -100,8 +100,9 @@ public class CropPlot {
      * Get growth stage (0-7) for display purposes
      */
     public int getGrowthStage() {
+        CropType cropType = getCropType();
         if (cropType == null) return 0;
-        float ratio = (float) growthProgress / cropType.getGrowthTime();
+        float ratio = (float) getGrowthProgress() / cropType.getGrowthTime();
         return Math.min(7, (int) (ratio * 8));
     }
     
@@ -109,8 +110,9 @@ public class CropPlot {
      * Get growth progress as a percentage (0.0 to 1.0)
      */
     public float getGrowthPercent() {
-        if (!isPlanted || cropType == null) return 0f;
-        return Math.min(1.0f, (float) growthProgress / cropType.getGrowthTime());
+        CropType cropType = getCropType();
+        if (cropType == null) return 0f;
+        return Math.min(1.0f, (float) getGrowthProgress() / cropType.getGrowthTime());
     }
 
     /**
@@ -127,58 +129,55 @@ public class CropPlot {
      * @return the yield amount, or 0 if not ready
      */
     public int harvest(boolean replant) {
-        if (!isReady()) return 0;
-
-        int yield = cropType.getBaseYield();
-        harvestCount++;
-
-        if (replant) {
-            growthProgress = 0;
-        } else {
-            cropType = null;
-            isPlanted = false;
-            growthProgress = 0;
-        }
-
-        return yield;
+        return field.harvest(index, replant, PocketEstate.getGameTime());
     }
 
     /**
      * Clear the plot completely
      */
     public void clear() {
-        this.cropType = null;
-        this.growthProgress = 0;
-        this.isPlanted = false;
+        field.set(index, null, 0, getHarvestCount());
+    }
+
+    /**
+     * Growth start for data saved as ticks of progress by older versions
+     */
+    public static long growthStartFromProgress(int growthProgress) {
+        return PocketEstate.getGameTime() - growthProgress;
     }
 
     // NBT serialization
     public CompoundTag toNBT() {
         CompoundTag tag = new CompoundTag();
-        tag.putBoolean("planted", isPlanted);
-        tag.putInt("growthProgress", growthProgress);
-        tag.putInt("harvestCount", harvestCount);
+        CropType cropType = getCropType();
+        tag.putBoolean("planted", cropType != null);
+        tag.putLong("growthStart", getGrowthStart());
+        tag.putInt("harvestCount", getHarvestCount());
         if (cropType != null) {
             tag.putString("cropType", cropType.name());
         }
         return tag;
     }
 
-    public static CropPlot fromNBT(CompoundTag tag) {
-        CropPlot plot = new CropPlot();
-        plot.isPlanted = tag.getBoolean("planted").orElse(false);
-        plot.growthProgress = tag.getInt("growthProgress").orElse(0);
-        plot.harvestCount = tag.getInt("harvestCount").orElse(0);
-
-        if (tag.contains("cropType")) {
+    /**
+     * Overwrite this plot with state saved by {@link #toNBT}
+     */
+    public void loadNBT(CompoundTag tag) {
+        boolean planted = tag.getBoolean("planted").orElse(false);
+        long growthStart = tag.getLong("growthStart")
+            .orElseGet(() -> growthStartFromProgress(tag.getInt("growthProgress").orElse(0)));
+        int harvestCount = tag.getInt("harvestCount").orElse(0);
+
+        CropType cropType = null;
+        if (planted && tag.contains("cropType")) {
             try {
                 String typeName = tag.getString("cropType").orElse("");
                 if (!typeName.isEmpty()) {
-                    plot.cropType = CropType.valueOf(typeName);
+                    cropType = CropType.valueOf(typeName);
                 }
             } catch (IllegalArgumentException ignored) {}
         }
 
-        return plot;
+        field.set(index, cropType, growthStart, harvestCount);
     }
 }
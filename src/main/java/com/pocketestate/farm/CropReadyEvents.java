@@ -0,0 +1,73 @@
+package com.pocketestate.farm;
+
+import net.minecraft.server.MinecraftServer;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Per-estate crop readiness notifications
+ *
+ * Each estate remembers whether none, some or all of its planted crops
+ * are ready. When crops ripen and that state rises, an event is queued;
+ * the queue is dispatched to subscribers once per tick. Planting,
+ * harvesting and boosting update the state silently, so events only
+ * mark crops becoming ready on their own.
+ */
+public final class CropReadyEvents {
+    public enum Readiness { NONE, SOME_READY, ALL_READY }
+
+    public enum Type {
+        FIELD_READY, // The first crops of the estate became ready
+        ALL_READY    // Every planted crop of the estate is ready
+    }
+
+    public record Event(UUID owner, Type type, int readyCount) {}
+
+    @FunctionalInterface
+    public interface Listener {
+        void onEvent(MinecraftServer server, Event event);
+    }
+
+    private static final ArrayDeque<Event> queue = new ArrayDeque<>();
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private CropReadyEvents() {}
+
+    public static void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void unsubscribe(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Queue the event for a readiness change, if it is a rise
+     */
+    static void onTransition(UUID owner, Readiness from, Readiness to, int readyCount) {
+        if (to.ordinal() <= from.ordinal()) return;
+        queue.add(new Event(owner, to == Readiness.ALL_READY ? Type.ALL_READY : Type.FIELD_READY, readyCount));
+    }
+
+    /**
+     * Deliver queued events to every subscriber (server thread, once per tick)
+     */
+    public static void dispatch(MinecraftServer server) {
+        Event event;
+        while ((event = queue.poll()) != null) {
+            for (Listener listener : listeners) {
+                listener.onEvent(server, event);
+            }
+        }
+    }
+
+    /**
+     * Drop queued events (new server / world); subscribers stay registered
+     */
+    static void clear() {
+        queue.clear();
+    }
+}
@@ -0,0 +1,62 @@
+package com.pocketestate.farm;
+
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Game-time ordered queue of "an estate has crops becoming ready" events,
+ * shared by all estates
+ *
+ * Each entry is an (estate, ready tick) pair; plots of one estate that
+ * ripen on the same tick share an entry. Polling only touches entries
+ * that are due, so the per-tick cost does not depend on how many
+ * estates or plots exist. Entries can be stale (the plot was harvested
+ * or cleared early); consumers re-check the estate when one fires.
+ *
+ * Polling allocates nothing; scheduling allocates one small entry per
+ * distinct (estate, tick) pair.
+ */
+public class CropReadyQueue {
+    private record Entry(long readyTick, UUID owner) {}
+
+    private final PriorityQueue<Entry> queue = new PriorityQueue<>((a, b) -> Long.compare(a.readyTick(), b.readyTick()));
+    private final Set<Entry> scheduled = new HashSet<>();
+    private final Set<UUID> fired = new HashSet<>(); // Reused by pollDue
+
+    /**
+     * Schedule an event for an estate at a game tick (duplicates are ignored)
+     */
+    public void schedule(UUID owner, long readyTick) {
+        Entry entry = new Entry(readyTick, owner);
+        if (scheduled.add(entry)) {
+            queue.add(entry);
+        }
+    }
+
+    /**
+     * Remove every entry due at or before the given tick and pass each
+     * estate to the consumer once
+     */
+    public void pollDue(long now, Consumer<UUID> consumer) {
+        if (queue.isEmpty() || queue.peek().readyTick() > now) return;
+        fired.clear();
+        while (!queue.isEmpty() && queue.peek().readyTick() <= now) {
+            Entry entry = queue.poll();
+            scheduled.remove(entry);
+            if (fired.add(entry.owner())) {
+                consumer.accept(entry.owner());
+            }
+        }
+        fired.clear();
+    }
+
+    public int size() { return queue.size(); }
+
+    public void clear() {
+        queue.clear();
+        scheduled.clear();
+    }
+}
@@ -0,0 +1,30 @@
+package com.pocketestate.farm;
+
+import net.minecraft.server.MinecraftServer;
+
+/**
+ * Source of the game time estates are simulated against
+ *
+ * On a running server this is the overworld's game time. Tests and load
+ * tools can install a {@link ManualEstateClock} instead (see
+ * {@link com.pocketestate.PocketEstate#setClock}) and move it by any
+ * amount: crops, compost, mob pens and autosave all measure elapsed time
+ * against the clock, so skipping a day costs about as much as one tick.
+ */
+@FunctionalInterface
+public interface EstateClock {
+    /** Clock that always reads 0 (no server running) */
+    EstateClock STOPPED = () -> 0;
+
+    /**
+     * Current game time in ticks
+     */
+    long now();
+
+    /**
+     * Clock following a server's overworld game time
+     */
+    static EstateClock server(MinecraftServer server) {
+        return () -> server.overworld().getGameTime();
+    }
+}
@@ -0,0 +1,287 @@
+package com.pocketestate.farm;
+
+import com.pocketestate.PocketEstate;
+import com.pocketestate.config.EstateConfig;
+import com.pocketestate.data.PlayerData;
+import net.minecraft.Util;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Spreads periodic estate work (pen production) evenly across ticks
+ * instead of running every estate on the same tick
+ *
+ * Each player is hashed into a bucket per interval, so an estate still
+ * runs once per interval but at its own offset. Due work, together with
+ * estates whose crops just became ready, goes into a queue that is
+ * drained under a time budget each tick; anything left over carries
+ * into the next tick. If the estate clock jumps ahead by a production
+ * interval or more (an injected {@link ManualEstateClock}), every online
+ * estate is queued at once and produces for the whole gap.
+ *
+ * With {@link EstateConfig#ADAPTIVE_FIDELITY}, estates of players who
+ * have been AFK (no movement or other action) for {@link EstateConfig#IDLE_TIMEOUT}
+ * drop to one update per {@link EstateConfig#IDLE_UPDATE_INTERVAL}: their
+ * ready events are ignored, and each update harvests and produces for
+ * all the time since the last one. Players who are active but never open
+ * the estate GUI keep full fidelity. Using a GUI wakes the estate at once;
+ * becoming active otherwise is noticed on the estate's next bucket.
+ *
+ * With {@link EstateConfig#PARALLEL_SIMULATION} the queue is drained in
+ * batches of two phases instead: each estate's jobs are simulated on a
+ * worker thread (one task per estate, touching only that estate), then
+ * the visible effects - journaling, XP, sounds and money - are applied
+ * on the server thread. The same budget applies between batches.
+ */
+public class EstateTickScheduler {
+    private enum Task { HARVEST, PRODUCTION }
+
+    private record Job(UUID owner, Task task) {}
+
+    // Estates simulated per worker thread in one parallel batch
+    private static final int BATCH_PER_THREAD = 4;
+
+    private final ArrayDeque<Job> queue = new ArrayDeque<>();
+    private ForkJoinPool pool;
+    private long ticks = 0;
+    private long lastClockTime = Long.MIN_VALUE;
+    private int lastProcessed = 0;
+    private long idleUpdates = 0;
+
+    /**
+     * Called every server tick
+     */
+    public void tick(MinecraftServer server) {
+        if (PocketEstate.dataManager == null) return;
+        ticks++;
+
+        // Queue the estates whose bucket comes up this tick, or all of them after a clock jump
+        int productionInterval = Math.max(1, EstateConfig.PRODUCTION_INTERVAL);
+        long now = PocketEstate.getGameTime();
+        boolean jumped = lastClockTime != Long.MIN_VALUE && now - lastClockTime >= productionInterval;
+        lastClockTime = now;
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            UUID owner = player.getUUID();
+            if (jumped || Math.floorMod(bucketHash(owner), productionInterval) == ticks % productionInterval) {
+                queueDue(player, now);
+            }
+        }
+        VirtualCropManager.pollReadyEstates(server, owner -> {
+            // Idle estates pick up their ready crops on their next coarse update
+            if (!PocketEstate.dataManager.getPlayerData(owner).isIdle()) {
+                queue.add(new Job(owner, Task.HARVEST));
+            }
+        });
+
+        if (EstateConfig.PARALLEL_SIMULATION) {
+            runParallel(server);
+        } else {
+            runSerial(server);
+        }
+
+        // Readiness changes from this tick's work
+        CropReadyEvents.dispatch(server);
+    }
+
+    /**
+     * Queue an estate whose bucket came up, at full or reduced fidelity
+     */
+    private void queueDue(ServerPlayer player, long now) {
+        UUID owner = player.getUUID();
+        PlayerData data = PocketEstate.dataManager.getPlayerData(owner);
+        boolean idle = isIdle(player);
+        data.setIdle(idle);
+        if (!idle) {
+            queue.add(new Job(owner, Task.PRODUCTION));
+        } else if (now - data.getLastProductionTick() >= EstateConfig.IDLE_UPDATE_INTERVAL) {
+            // Coarse update: production and crops for the whole time since the last one
+            queue.add(new Job(owner, Task.PRODUCTION));
+            queue.add(new Job(owner, Task.HARVEST));
+            idleUpdates++;
+        }
+    }
+
+    /**
+     * Whether the player has taken no action (moving, clicking, chatting) within the idle timeout
+     */
+    private static boolean isIdle(ServerPlayer player) {
+        if (!EstateConfig.ADAPTIVE_FIDELITY) return false;
+        return Util.getMillis() - player.getLastActionTime() >= EstateConfig.IDLE_TIMEOUT * 50L;
+    }
+
+    /**
+     * Drain the queue under the budget; always make some progress
+     */
+    private void runSerial(MinecraftServer server) {
+        long deadline = System.nanoTime() + EstateConfig.ESTATE_TICK_BUDGET_MICROS * 1000L;
+        int processed = 0;
+        while (!queue.isEmpty()) {
+            run(server, queue.poll());
+            processed++;
+            if (System.nanoTime() >= deadline) break;
+        }
+        lastProcessed = processed;
+    }
+
+    private void run(MinecraftServer server, Job job) {
+        // Players who left since being queued are caught up on their next join
+        ServerPlayer player = server.getPlayerList().getPlayer(job.owner());
+        if (player == null) return;
+
+        PlayerData data = PocketEstate.dataManager.getPlayerData(job.owner());
+        switch (job.task()) {
+            case HARVEST -> VirtualCropManager.onCropsReady(data, player);
+            case PRODUCTION -> VirtualMobManager.processPlayerProduction(player);
+        }
+    }
+
+    /**
+     * Simulate queued estates on the pool a batch at a time, committing
+     * each batch in queue order, until the queue is empty or the budget
+     * is spent; always run at least one batch
+     */
+    private void runParallel(MinecraftServer server) {
+        long deadline = System.nanoTime() + EstateConfig.ESTATE_TICK_BUDGET_MICROS * 1000L;
+        int threads = getSimulationThreads();
+        int processed = 0;
+        while (!queue.isEmpty()) {
+            processed += runBatch(server, threads * BATCH_PER_THREAD, threads);
+            if (System.nanoTime() >= deadline) break;
+        }
+        lastProcessed = processed;
+    }
+
+    /**
+     * Simulate up to {@code maxEstates} queued estates on the pool, then commit them
+     * @return the number of estates processed
+     */
+    private int runBatch(MinecraftServer server, int maxEstates, int threads) {
+        // Group jobs by estate; estate lookups stay on the server thread
+        Map<UUID, EstateWork> work = new LinkedHashMap<>();
+        while (!queue.isEmpty()) {
+            Job job = queue.peek();
+            if (work.size() >= maxEstates && !work.containsKey(job.owner())) break; // Next batch
+            queue.poll();
+            ServerPlayer player = server.getPlayerList().getPlayer(job.owner());
+            if (player == null) continue;
+            work.computeIfAbsent(job.owner(),
+                owner -> new EstateWork(player, PocketEstate.dataManager.getPlayerData(owner)))
+                .tasks.add(job.task());
+        }
+        if (work.isEmpty()) return 0;
+
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (EstateWork estate : work.values()) {
+            tasks.add(pool.submit(estate::simulate));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+
+        for (EstateWork estate : work.values()) {
+            estate.commit();
+        }
+        return work.size();
+    }
+
+    /**
+     * One estate's jobs for a tick and the results waiting to be committed
+     */
+    private static final class EstateWork {
+        private final ServerPlayer player;
+        private final PlayerData data;
+        private final List<Task> tasks = new ArrayList<>(2);
+        private VirtualCropManager.HarvestResult harvest;
+        private List<ItemStack> drops;
+        private final Set<PenType> producedBy = EnumSet.noneOf(PenType.class);
+        private boolean readyCheck;
+
+        EstateWork(ServerPlayer player, PlayerData data) {
+            this.player = player;
+            this.data = data;
+        }
+
+        /**
+         * Worker thread: changes only this estate's pens and plots
+         */
+        void simulate() {
+            for (Task task : tasks) {
+                switch (task) {
+                    case HARVEST -> {
+                        if (data.isAutoHarvestEnabled()) {
+                            harvest = new VirtualCropManager.HarvestResult();
+                            VirtualCropManager.collectReadyCrops(data, harvest);
+                        } else {
+                            readyCheck = true;
+                        }
+                    }
+                    case PRODUCTION -> drops = VirtualMobManager.produce(data, producedBy);
+                }
+            }
+        }
+
+        /**
+         * Server thread: journal, reschedule and reward
+         */
+        void commit() {
+            if (tasks.contains(Task.PRODUCTION)) {
+                data.setLastActiveTick(PocketEstate.getGameTime());
+            }
+            if (drops != null) {
+                data.addPenProduction(producedBy, drops);
+            }
+            if (harvest != null) {
+                VirtualCropManager.applyHarvest(data, player, harvest);
+            }
+            if (readyCheck) {
+                VirtualCropManager.updateReadiness(player.getUUID(), data, true);
+            }
+        }
+    }
+
+    /**
+     * Stop the worker threads (server stopping)
+     */
+    public void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private static int getSimulationThreads() {
+        return EstateConfig.SIMULATION_THREADS > 0
+            ? EstateConfig.SIMULATION_THREADS
+            : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Well-mixed hash of a UUID so buckets fill evenly
+     */
+    private static long bucketHash(UUID id) {
+        long h = id.getMostSignificantBits() ^ id.getLeastSignificantBits();
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    public int getQueuedJobs() { return queue.size(); }
+    public int getLastProcessed() { return lastProcessed; }
+    public long getIdleUpdates() { return idleUpdates; }
+}
@@ -0,0 +1,30 @@
+package com.pocketestate.farm;
+
+/**
+ * Estate clock that only moves when told to, for tests, benchmarks and
+ * load tools that need to fast-forward estates
+ */
+public class ManualEstateClock implements EstateClock {
+    private volatile long time;
+
+    public ManualEstateClock(long time) {
+        this.time = time;
+    }
+
+    @Override
+    public long now() { return time; }
+
+    /**
+     * Move the clock forward by a number of ticks
+     */
+    public void advance(long ticks) {
+        if (ticks > 0) time += ticks;
+    }
+
+    /**
+     * Jump to a game time; going backwards is ignored since estates assume time never rewinds
+     */
+    public void set(long time) {
+        if (time > this.time) this.time = time;
+    }
+}
@@ -1,11 +1,21 @@
 package com.pocketestate.farm;
 
+import com.pocketestate.PocketEstate;
+import com.pocketestate.data.PlayerDataCodec;
+import com.pocketestate.data.VarInt;
+import net.minecraft.core.HolderLookup;
 import net.minecraft.core.component.DataComponents;
-import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.NbtOps;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.Random;
 
 /**
@@ -25,6 +35,15 @@ public class MobPen {
     
     private static final Random random = new Random();
     
+    // Encoded form of toolSlot. Replaced (never mutated) whenever the tool
+    // changes, and shared with save snapshots so an unchanged tool is only
+    // run through the item codec once.
+    private ToolCache toolCache = new ToolCache();
+    
+    private static final class ToolCache {
+        volatile CompoundTag tag;
+    }
+    
     public MobPen(PenType type) {
         this.penType = type;
         this.toolSlot = ItemStack.EMPTY;
@@ -50,6 +69,7 @@ public class MobPen {
      */
     public void setTool(ItemStack tool) {
         this.toolSlot = tool.copy();
+        this.toolCache = new ToolCache();
     }
     
     /**
@@ -58,6 +78,7 @@ public class MobPen {
     public ItemStack removeTool() {
         ItemStack tool = this.toolSlot;
         this.toolSlot = ItemStack.EMPTY;
+        this.toolCache = new ToolCache();
         return tool;
     }
     
@@ -139,6 +160,7 @@ public class MobPen {
                     // Damage the tool
                     int newDamage = toolSlot.getDamageValue() + 1;
                     toolSlot.setDamageValue(newDamage);
+                    toolCache = new ToolCache();
                     
                     // Check if tool broke
                     if (newDamage >= toolSlot.getMaxDamage()) {
@@ -162,6 +184,65 @@ public class MobPen {
         return produced;
     }
     
+    /**
+     * Run many production cycles at once (offline catch-up).
+     * Cycles stop when fodder runs out and tool-dependent drops stop when
+     * the tool breaks; drop counts use the expected value of the rolls.
+     * @return the items produced, split into stacks
+     */
+    public java.util.List<ItemStack> produceCycles(long cycles) {
+        java.util.List<ItemStack> produced = new java.util.ArrayList<>();
+        if (!isConstructed || cycles <= 0) return produced;
+        
+        // Limited by fodder
+        if (penType.getFodderItem() != null && penType.getFodderPerCycle() > 0) {
+            cycles = Math.min(cycles, fodderAmount / penType.getFodderPerCycle());
+            fodderAmount -= (int) (cycles * penType.getFodderPerCycle());
+        }
+        if (cycles == 0) return produced;
+        
+        for (PenType.LootEntry loot : penType.getLootTable()) {
+            long lootCycles = cycles;
+            if (loot.requiredTool() != null) {
+                if (toolSlot.isEmpty() || !isValidTool(toolSlot, loot.requiredTool())) {
+                    continue;
+                }
+                if (loot.consumesTool() && toolSlot.isDamageableItem()) {
+                    // One durability per cycle until the tool breaks
+                    int remaining = toolSlot.getMaxDamage() - toolSlot.getDamageValue();
+                    lootCycles = Math.min(cycles, remaining);
+                    int newDamage = toolSlot.getDamageValue() + (int) lootCycles;
+                    if (newDamage >= toolSlot.getMaxDamage()) {
+                        toolSlot = ItemStack.EMPTY;
+                    } else {
+                        toolSlot.setDamageValue(newDamage);
+                    }
+                    toolCache = new ToolCache();
+                }
+            }
+            
+            long count = lootCycles * loot.minCount();
+            int range = loot.maxCount() - loot.minCount();
+            if (range > 0) {
+                // Expected total of the uniform rolls, odd halves rounded at random
+                long spread = lootCycles * range;
+                count += spread / 2 + ((spread & 1) == 1 && random.nextBoolean() ? 1 : 0);
+            }
+            
+            if (count > 0) {
+                totalProduced += (int) count;
+                int maxStack = loot.item().getDefaultMaxStackSize();
+                while (count > 0) {
+                    int size = (int) Math.min(count, maxStack);
+                    produced.add(new ItemStack(loot.item(), size));
+                    count -= size;
+                }
+            }
+        }
+        
+        return produced;
+    }
+    
     /**
      * Check if an item is a valid tool for the required type
      */
@@ -181,8 +262,94 @@ public class MobPen {
         return stack.is(required);
     }
     
+    /**
+     * Create a detached copy of this pen (tool stack included)
+     */
+    public MobPen copy() {
+        MobPen copy = new MobPen(penType);
+        copy.toolSlot = toolSlot.copy();
+        copy.toolCache = toolCache;
+        copy.fodderAmount = fodderAmount;
+        copy.productionProgress = productionProgress;
+        copy.totalProduced = totalProduced;
+        copy.isConstructed = isConstructed;
+        copy.ironBlocksInvested = ironBlocksInvested;
+        return copy;
+    }
+    
+    /**
+     * Encode the tool with the full item codec (components, enchantments,
+     * custom names, durability), reusing the cached result if unchanged
+     * @return the encoded tool, or null if the slot is empty
+     */
+    private CompoundTag encodeTool(HolderLookup.Provider registries) {
+        if (toolSlot.isEmpty()) return null;
+        ToolCache cache = toolCache;
+        CompoundTag tag = cache.tag;
+        if (tag == null) {
+            tag = ItemStack.CODEC.encodeStart(registries.createSerializationContext(NbtOps.INSTANCE), toolSlot)
+                .resultOrPartial(error -> PocketEstate.LOGGER.warn("Failed to encode " + penType + " pen tool: " + error))
+                .filter(CompoundTag.class::isInstance)
+                .map(CompoundTag.class::cast)
+                .orElse(null);
+            cache.tag = tag;
+        }
+        return tag;
+    }
+    
+    private static ItemStack decodeTool(CompoundTag tag, HolderLookup.Provider registries) {
+        ItemStack tool = ItemStack.CODEC.parse(registries.createSerializationContext(NbtOps.INSTANCE), tag)
+            .resultOrPartial(error -> PocketEstate.LOGGER.warn("Failed to load pen tool: " + error))
+            .orElse(ItemStack.EMPTY);
+        // Older saves kept durability in a separate "damage" field
+        if (!tool.isEmpty() && !tag.contains("components")) {
+            tag.getInt("damage").ifPresent(tool::setDamageValue);
+        }
+        return tool;
+    }
+    
+    // Binary serialization (estate shards)
+    public void writeBinary(DataOutput out, HolderLookup.Provider registries) throws IOException {
+        VarInt.writeVarInt(out, fodderAmount);
+        VarInt.writeVarInt(out, productionProgress);
+        VarInt.writeVarInt(out, totalProduced);
+        out.writeBoolean(isConstructed);
+        VarInt.writeVarInt(out, ironBlocksInvested);
+        CompoundTag toolTag = encodeTool(registries);
+        out.writeBoolean(toolTag != null);
+        if (toolTag != null) {
+            NbtIo.write(toolTag, out);
+        }
+    }
+
+    public static MobPen readBinary(DataInput in, PenType type, int version, HolderLookup.Provider registries) throws IOException {
+        MobPen pen = new MobPen(type);
+        pen.fodderAmount = VarInt.readVarInt(in);
+        pen.productionProgress = VarInt.readVarInt(in);
+        pen.totalProduced = VarInt.readVarInt(in);
+        pen.isConstructed = in.readBoolean();
+        pen.ironBlocksInvested = VarInt.readVarInt(in);
+        if (in.readBoolean()) {
+            if (version >= 3) {
+                CompoundTag toolTag = NbtIo.read(in, NbtAccounter.unlimitedHeap());
+                pen.toolSlot = decodeTool(toolTag, registries);
+                pen.toolCache.tag = toolTag;
+            } else {
+                // Versions 1-2 stored only item key, count and damage
+                Item item = PlayerDataCodec.resolveItem(in.readUTF());
+                int count = VarInt.readVarInt(in);
+                int damage = VarInt.readVarInt(in);
+                if (item != null && item != Items.AIR) {
+                    pen.toolSlot = new ItemStack(item, count);
+                    if (damage > 0) pen.toolSlot.setDamageValue(damage);
+                }
+            }
+        }
+        return pen;
+    }
+
     // NBT serialization
-    public CompoundTag toNBT() {
+    public CompoundTag toNBT(HolderLookup.Provider registries) {
         CompoundTag tag = new CompoundTag();
         tag.putString("penType", penType.name());
         tag.putInt("fodder", fodderAmount);
@@ -191,20 +358,15 @@ public class MobPen {
         tag.putBoolean("constructed", isConstructed);
         tag.putInt("ironBlocks", ironBlocksInvested);
         
-        if (!toolSlot.isEmpty()) {
-            CompoundTag toolTag = new CompoundTag();
-            toolTag.putString("id", BuiltInRegistries.ITEM.getKey(toolSlot.getItem()).toString());
-            toolTag.putInt("count", toolSlot.getCount());
-            if (toolSlot.getDamageValue() > 0) {
-                toolTag.putInt("damage", toolSlot.getDamageValue());
-            }
-            tag.put("tool", toolTag);
+        CompoundTag toolTag = encodeTool(registries);
+        if (toolTag != null) {
+            tag.put("tool", toolTag.copy());
         }
         
         return tag;
     }
     
-    public static MobPen fromNBT(CompoundTag tag, PenType type) {
+    public static MobPen fromNBT(CompoundTag tag, PenType type, HolderLookup.Provider registries) {
         MobPen pen = new MobPen(type);
         pen.fodderAmount = tag.getInt("fodder").orElse(0);
         pen.productionProgress = tag.getInt("progress").orElse(0);
@@ -212,7 +374,12 @@ public class MobPen {
         pen.isConstructed = tag.getBoolean("constructed").orElse(type != PenType.IRON_GOLEM);
         pen.ironBlocksInvested = tag.getInt("ironBlocks").orElse(0);
         
-        // Tool loading would need registry access - handled at use time
+        tag.getCompound("tool").ifPresent(toolTag -> {
+            pen.toolSlot = decodeTool(toolTag, registries);
+            if (!toolTag.contains("damage")) {
+                pen.toolCache.tag = toolTag; // Already in codec form
+            }
+        });
         
         return pen;
     }
@@ -0,0 +1,65 @@
+package com.pocketestate.farm;
+
+import com.pocketestate.PocketEstate;
+import com.pocketestate.config.EstateConfig;
+import com.pocketestate.data.PlayerData;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Credits an estate for the time its owner was away
+ *
+ * Estates are only simulated while their owner is online. When the
+ * owner joins, the elapsed game time since they were last online (the
+ * saved last active tick, capped by {@link EstateConfig#MAX_OFFLINE_CATCHUP})
+ * is applied in one step: mob pens advance in closed form, so the cost
+ * does not depend on how long the player was gone. Loading an offline
+ * owner's estate for any other reason credits nothing.
+ *
+ * Crops and the compost bin need no work here since both are derived
+ * from game time; compost stops at the cap while the owner is offline,
+ * and ripe plots are auto-harvested by the ready queue once they join.
+ */
+public final class OfflineCatchUp {
+
+    private OfflineCatchUp() {}
+
+    /**
+     * Apply the time elapsed since the estate was last active and mark it active now
+     */
+    public static void catchUp(PlayerData data, long now) {
+        long last = data.getLastActiveTick();
+        // Compost runs up to the cap while still offline; the rest of the absence is dropped
+        data.settleCompost();
+        data.skipCompostBefore(now);
+        data.setLastActiveTick(now);
+        data.setLastProductionTick(now);
+        if (last <= 0 || now <= last) return;
+
+        long elapsed = Math.min(now - last, EstateConfig.MAX_OFFLINE_CATCHUP);
+
+        long cycles = elapsed / EstateConfig.PRODUCTION_INTERVAL;
+        int produced = 0;
+        if (cycles > 0) {
+            Set<PenType> producedBy = EnumSet.noneOf(PenType.class);
+            List<ItemStack> drops = new ArrayList<>();
+            for (MobPen pen : data.getMobPens().values()) {
+                if (!pen.canProduce()) continue;
+                producedBy.add(pen.getPenType());
+                for (ItemStack stack : pen.produceCycles(cycles)) {
+                    produced += stack.getCount();
+                    drops.add(stack);
+                }
+            }
+            data.addPenProduction(producedBy, drops);
+        }
+        data.markDirty();
+
+        PocketEstate.LOGGER.debug("Caught up estate for " + (elapsed / 20) + "s offline: "
+            + cycles + " pen cycles, " + produced + " items produced");
+    }
+}
@@ -0,0 +1,156 @@
+package com.pocketestate.farm;
+
+/**
+ * Crop field with one packed long per plot
+ *
+ * Two bit masks index the plots: planted, and ready (a subset of
+ * planted). Empty and growing are their complements. Crops ripen with
+ * game time rather than through {@link #fill}, so growing plots are
+ * promoted to ready lazily, only once the earliest known ready time has
+ * passed. Counts are popcounts and "every ready plot" walks set bits.
+ */
+final class PackedCropField extends CropField {
+    private final long[] plots;
+    private final long[] plantedMask;
+    private final long[] readyMask;
+    private long nextReadyTime = Long.MAX_VALUE; // Earliest ready time among growing plots (may be stale-early)
+
+    PackedCropField(int size) {
+        this.plots = new long[size];
+        this.plantedMask = new long[(size + 63) >>> 6];
+        this.readyMask = new long[plantedMask.length];
+    }
+
+    private PackedCropField(PackedCropField other) {
+        this.plots = other.plots.clone();
+        this.plantedMask = other.plantedMask.clone();
+        this.readyMask = other.readyMask.clone();
+        this.nextReadyTime = other.nextReadyTime;
+    }
+
+    @Override
+    public int size() { return plots.length; }
+
+    @Override
+    long get(int index) {
+        return plots[index];
+    }
+
+    @Override
+    void fill(int from, int count, long packed) {
+        boolean planted = isPlanted(packed);
+        for (int index = from; index < from + count; index++) {
+            plots[index] = packed;
+            long bit = 1L << index;
+            readyMask[index >>> 6] &= ~bit;
+            if (planted) {
+                plantedMask[index >>> 6] |= bit;
+            } else {
+                plantedMask[index >>> 6] &= ~bit;
+            }
+        }
+        if (planted) {
+            nextReadyTime = Math.min(nextReadyTime, readyTimeOf(packed));
+        }
+    }
+
+    @Override
+    public int runEnd(int index, int limit) {
+        limit = Math.min(limit, plots.length);
+        long packed = plots[index];
+        int end = index + 1;
+        while (end < limit && plots[end] == packed) end++;
+        return end;
+    }
+
+    /**
+     * Move growing plots whose ready time has passed into the ready mask
+     */
+    private void refresh(long now) {
+        if (now < nextReadyTime) return;
+        long next = Long.MAX_VALUE;
+        for (int w = 0; w < plantedMask.length; w++) {
+            long growing = plantedMask[w] & ~readyMask[w];
+            while (growing != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(growing);
+                growing &= growing - 1;
+                long readyTime = readyTimeOf(plots[index]);
+                if (readyTime <= now) {
+                    readyMask[w] |= 1L << index;
+                } else {
+                    next = Math.min(next, readyTime);
+                }
+            }
+        }
+        nextReadyTime = next;
+    }
+
+    @Override
+    public int countPlanted(int limit) {
+        return countBits(plantedMask, limit);
+    }
+
+    @Override
+    public int countReady(int limit, long now) {
+        refresh(now);
+        return countBits(readyMask, limit);
+    }
+
+    @Override
+    public int nextReady(int from, int limit, long now) {
+        refresh(now);
+        return nextSetBit(readyMask, from, limit, false);
+    }
+
+    @Override
+    public int nextEmpty(int from, int limit) {
+        return nextSetBit(plantedMask, from, limit, true);
+    }
+
+    @Override
+    public int nextGrowing(int from, int limit, long now) {
+        refresh(now);
+        limit = Math.min(limit, plots.length);
+        for (int w = from >>> 6; from < limit && w < plantedMask.length; w++) {
+            long word = plantedMask[w] & ~readyMask[w];
+            if (w == from >>> 6) word &= -1L << from;
+            if (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                return index < limit ? index : -1;
+            }
+        }
+        return -1;
+    }
+
+    private int countBits(long[] mask, int limit) {
+        limit = Math.min(limit, plots.length);
+        int count = 0;
+        int words = limit >>> 6;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(mask[w]);
+        }
+        if ((limit & 63) != 0) {
+            count += Long.bitCount(mask[words] & ((1L << limit) - 1));
+        }
+        return count;
+    }
+
+    private int nextSetBit(long[] mask, int from, int limit, boolean inverted) {
+        limit = Math.min(limit, plots.length);
+        if (from < 0) from = 0;
+        for (int w = from >>> 6; from < limit && w < mask.length; w++) {
+            long word = inverted ? ~mask[w] : mask[w];
+            if (w == from >>> 6) word &= -1L << from;
+            if (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                return index < limit ? index : -1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public CropField copy() {
+        return new PackedCropField(this);
+    }
+}
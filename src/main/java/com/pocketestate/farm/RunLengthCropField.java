@@ -0,0 +1,201 @@
+package com.pocketestate.farm;
+
+import java.util.Arrays;
+
+/**
+ * Crop field stored as runs of identical consecutive plots
+ *
+ * A run is (first index, packed state); it covers every plot up to the
+ * next run's first index. Planting or harvesting a block of plots at once
+ * leaves a single run, so counts, scans and the bulk operations in
+ * {@link CropField} cost O(runs) however many plots the estate has.
+ * Writing part of a run splits it on demand; equal neighbours are merged
+ * again right away, so two adjacent runs never hold the same state.
+ * The exception is a bulk operation: it overwrites whole runs in place
+ * and merges them all in a single pass at the end, so it never shifts
+ * the run arrays once per run.
+ */
+final class RunLengthCropField extends CropField {
+    private final int size;
+    private int[] starts;  // First plot of each run, ascending, starts[0] == 0
+    private long[] values; // Packed state of each run
+    private int runCount;
+    private boolean unmerged; // A bulk operation may have left equal neighbours
+
+    RunLengthCropField(int size) {
+        this.size = size;
+        this.starts = new int[8];
+        this.values = new long[8];
+        this.runCount = size > 0 ? 1 : 0;
+    }
+
+    private RunLengthCropField(RunLengthCropField other) {
+        this.size = other.size;
+        this.starts = other.starts.clone();
+        this.values = other.values.clone();
+        this.runCount = other.runCount;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    /**
+     * Number of runs the field is currently split into
+     */
+    public int getRunCount() { return runCount; }
+
+    /**
+     * Index of the run containing a plot
+     */
+    private int runOf(int index) {
+        int low = 0;
+        int high = runCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= index) low = mid;
+            else high = mid - 1;
+        }
+        return low;
+    }
+
+    private int endOf(int run) {
+        return run + 1 < runCount ? starts[run + 1] : size;
+    }
+
+    @Override
+    long get(int index) {
+        return values[runOf(index)];
+    }
+
+    @Override
+    void fill(int from, int count, long packed) {
+        int to = Math.min(size, from + count);
+        if (from < 0 || from >= to) return;
+
+        // Split so that [from, to) is covered by whole runs, then collapse them into one
+        int first = split(from);
+        int last = to < size ? split(to) : runCount;
+        values[first] = packed;
+        remove(first + 1, last - first - 1);
+
+        if (first + 1 < runCount && values[first + 1] == packed) remove(first + 1, 1);
+        if (first > 0 && values[first - 1] == packed) remove(first, 1);
+    }
+
+    @Override
+    void fillRun(int from, int count, long packed) {
+        int run = runOf(from);
+        if (starts[run] != from || endOf(run) != from + count) {
+            fill(from, count, packed);
+            return;
+        }
+        values[run] = packed;
+        unmerged = true;
+    }
+
+    @Override
+    void endBulk() {
+        if (!unmerged) return;
+        unmerged = false;
+        int kept = 1;
+        for (int run = 1; run < runCount; run++) {
+            if (values[run] != values[kept - 1]) {
+                starts[kept] = starts[run];
+                values[kept] = values[run];
+                kept++;
+            }
+        }
+        runCount = kept;
+    }
+
+    /**
+     * Make sure a run starts at {@code index}
+     * @return the index of that run
+     */
+    private int split(int index) {
+        int run = runOf(index);
+        if (starts[run] == index) return run;
+        if (runCount == starts.length) {
+            starts = Arrays.copyOf(starts, runCount * 2);
+            values = Arrays.copyOf(values, runCount * 2);
+        }
+        System.arraycopy(starts, run + 1, starts, run + 2, runCount - run - 1);
+        System.arraycopy(values, run + 1, values, run + 2, runCount - run - 1);
+        starts[run + 1] = index;
+        values[run + 1] = values[run];
+        runCount++;
+        return run + 1;
+    }
+
+    private void remove(int run, int count) {
+        if (count <= 0) return;
+        System.arraycopy(starts, run + count, starts, run, runCount - run - count);
+        System.arraycopy(values, run + count, values, run, runCount - run - count);
+        runCount -= count;
+    }
+
+    @Override
+    public int runEnd(int index, int limit) {
+        return Math.min(limit, endOf(runOf(index)));
+    }
+
+    @Override
+    public int countPlanted(int limit) {
+        limit = Math.min(limit, size);
+        int count = 0;
+        for (int run = 0; run < runCount && starts[run] < limit; run++) {
+            if (isPlanted(values[run])) count += Math.min(limit, endOf(run)) - starts[run];
+        }
+        return count;
+    }
+
+    @Override
+    public int countReady(int limit, long now) {
+        limit = Math.min(limit, size);
+        int count = 0;
+        for (int run = 0; run < runCount && starts[run] < limit; run++) {
+            if (readyTimeOf(values[run]) <= now) count += Math.min(limit, endOf(run)) - starts[run];
+        }
+        return count;
+    }
+
+    @Override
+    public int nextReady(int from, int limit, long now) {
+        return next(from, limit, 1, now);
+    }
+
+    @Override
+    public int nextEmpty(int from, int limit) {
+        return next(from, limit, 0, 0);
+    }
+
+    @Override
+    public int nextGrowing(int from, int limit, long now) {
+        return next(from, limit, 2, now);
+    }
+
+    /**
+     * First plot at or after {@code from} and below {@code limit} in the
+     * given state (0 empty, 1 ready, 2 growing), or -1
+     */
+    private int next(int from, int limit, int state, long now) {
+        limit = Math.min(limit, size);
+        if (from < 0) from = 0;
+        if (from >= limit) return -1;
+        for (int run = runOf(from); run < runCount && starts[run] < limit; run++) {
+            long packed = values[run];
+            boolean match = switch (state) {
+                case 0 -> !isPlanted(packed);
+                case 1 -> readyTimeOf(packed) <= now;
+                default -> isPlanted(packed) && readyTimeOf(packed) > now;
+            };
+            if (match) return Math.max(from, starts[run]);
+        }
+        return -1;
+    }
+
+    @Override
+    public CropField copy() {
+        return new RunLengthCropField(this);
+    }
+}
@@ -10,9 +10,9 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.network.chat.Component;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Handles virtual crop growth and harvesting
@@ -24,61 +24,109 @@ public class VirtualCropManager {
     public static final int XP_PER_HARVEST = 2;
     public static final int MONEY_PER_HARVEST = 5;
     
-    // Track for notification
-    private static boolean allCropsReadyNotified = false;
+    // When each estate next has crops becoming ready, across all estates
+    private static final CropReadyQueue readyQueue = new CropReadyQueue();
+    
+    private static final CropType[] CROP_TYPES = CropType.values();
+    private static final HarvestResult harvestScratch = new HarvestResult();
     
     /**
-     * Called every game tick from server - processes all online players
+     * Pass each estate whose crops became ready to the consumer.
+     * Called every tick by {@link EstateTickScheduler}; estates of offline
+     * players are skipped since they are rescheduled on join.
      */
-    public static void processCropGrowth(MinecraftServer server) {
-        if (PocketEstate.dataManager == null) return;
-        
-        // Process all online players
-        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
-            PlayerData data = PocketEstate.dataManager.getPlayerData(player.getUUID());
-            processCropGrowthForPlayer(data, player);
-        }
+    public static void pollReadyEstates(MinecraftServer server, Consumer<UUID> consumer) {
+        readyQueue.pollDue(PocketEstate.getGameTime(), owner -> {
+            if (server.getPlayerList().getPlayer(owner) != null) {
+                consumer.accept(owner);
+            }
+        });
     }
     
     /**
-     * Process crop growth for a single player's data
+     * Auto-harvest an estate whose crops became ready, or note it for the ready notification
      */
-    public static void processCropGrowthForPlayer(PlayerData data, ServerPlayer player) {
-        boolean anyGrowing = false;
-        int readyCount = 0;
-        int totalPlanted = 0;
-        
-        for (int i = 0; i < data.getUnlockedCropSlots(); i++) {
-            CropPlot plot = data.getCropPlot(i);
-            if (plot != null && plot.getCropType() != null) {
-                totalPlanted++;
-                if (!plot.isReady()) {
-                    plot.tick();
-                    anyGrowing = true;
-                } else {
-                    readyCount++;
-                }
-            }
-        }
-        
-        // Tick compost bin
-        data.tickCompost();
-        
+    public static void onCropsReady(PlayerData data, ServerPlayer player) {
         // Auto-harvest if enabled
-        if (data.isAutoHarvestEnabled() && readyCount > 0) {
+        if (data.isAutoHarvestEnabled()) {
             harvestAllWithRewards(data, player);
+            return;
         }
         
-        // Reset notification flag if any crops are still growing
-        if (anyGrowing) {
-            allCropsReadyNotified = false;
+        updateReadiness(player.getUUID(), data, true);
+    }
+    
+    /**
+     * Recompute whether none, some or all of an estate's crops are ready
+     * @param notify queue a ready event if the state rose (crops ripened);
+     *               false for changes the player made themselves
+     */
+    public static void updateReadiness(UUID owner, PlayerData data, boolean notify) {
+        int ready = getReadyCropCount(data);
+        CropReadyEvents.Readiness readiness = ready == 0 ? CropReadyEvents.Readiness.NONE
+            : getGrowingCropCount(data) == 0 ? CropReadyEvents.Readiness.ALL_READY
+            : CropReadyEvents.Readiness.SOME_READY;
+        if (notify) {
+            CropReadyEvents.onTransition(owner, data.getReadiness(), readiness, ready);
         }
+        data.setReadiness(readiness);
+    }
+    
+    /**
+     * Tell the owner when their crops ripen (subscribed to {@link CropReadyEvents})
+     */
+    public static void notifyOwner(MinecraftServer server, CropReadyEvents.Event event) {
+        ServerPlayer player = server.getPlayerList().getPlayer(event.owner());
+        if (player == null) return;
         
-        // Track if all planted crops are now ready (for notification)
-        if (totalPlanted > 0 && readyCount == totalPlanted && !allCropsReadyNotified) {
-            allCropsReadyNotified = true;
+        String message = event.type() == CropReadyEvents.Type.ALL_READY
+            ? "§a§l[FARM] §rAll your crops are ready to harvest!"
+            : "§a§l[FARM] §rYour crops are starting to ripen!";
+        player.sendSystemMessage(Component.literal(message));
+    }
+    
+    /**
+     * Queue a ready event for a plot that is planted (past ready times fire on the next tick)
+     */
+    public static void scheduleReady(UUID owner, CropPlot plot) {
+        if (plot.isEmpty()) return;
+        readyQueue.schedule(owner, Math.max(plot.getReadyTime(), PocketEstate.getGameTime()));
+    }
+    
+    /**
+     * Same as {@link #scheduleReady(UUID, CropPlot)}, straight from the packed field
+     */
+    public static void scheduleReady(UUID owner, CropField field, int index) {
+        if (field.isEmpty(index)) return;
+        readyQueue.schedule(owner, Math.max(field.getReadyTime(index), PocketEstate.getGameTime()));
+    }
+    
+    /**
+     * Queue a ready event for the estate at the current game time
+     */
+    public static void scheduleNow(UUID owner) {
+        readyQueue.schedule(owner, PocketEstate.getGameTime());
+    }
+    
+    /**
+     * Queue ready events for every planted plot of an estate (on load or join)
+     */
+    public static void scheduleEstate(UUID owner, PlayerData data) {
+        // Identical neighbouring plots share a ready time, so one event per run
+        CropField field = data.getCropField();
+        int slots = Math.min(data.getUnlockedCropSlots(), field.size());
+        for (int i = 0; i < slots; i = field.runEnd(i, slots)) {
+            scheduleReady(owner, field, i);
         }
     }
+    
+    /**
+     * Forget all scheduled events (new server / world)
+     */
+    public static void reset() {
+        readyQueue.clear();
+        CropReadyEvents.clear();
+    }
 
     /**
      * Plant a specific crop type in a plot
@@ -90,6 +138,7 @@ public class VirtualCropManager {
         if (plot == null || plot.getCropType() != null) return false;
 
         plot.plant(cropType);
+        data.markPlotChanged(slotIndex);
         return true;
     }
     
@@ -98,14 +147,10 @@ public class VirtualCropManager {
      * @return Number of plots planted
      */
     public static int plantAll(PlayerData data, CropType cropType, int maxSeeds) {
-        int planted = 0;
-        for (int i = 0; i < data.getUnlockedCropSlots() && planted < maxSeeds; i++) {
-            CropPlot plot = data.getCropPlot(i);
-            if (plot != null && plot.getCropType() == null) {
-                plot.plant(cropType);
-                planted++;
-            }
-        }
+        // Plants whole runs of empty plots at once
+        int planted = data.getCropField().plantEmpty(cropType, data.getUnlockedCropSlots(), maxSeeds,
+            PocketEstate.getGameTime(), data::markPlotsChanged);
+        data.updateReadiness();
         return planted;
     }
 
@@ -124,6 +169,7 @@ public class VirtualCropManager {
 
         // Get yield and clear plot
         int yield = plot.harvest();
+        data.markPlotChanged(slotIndex);
         return new ItemStack(type.getYieldItem(), yield);
     }
     
@@ -155,55 +201,92 @@ public class VirtualCropManager {
      * @return Total number of items harvested
      */
     public static int harvestAll(PlayerData data) {
-        List<ItemStack> harvested = new ArrayList<>();
-        int totalHarvested = 0;
+        HarvestResult result = new HarvestResult();
+        collectReadyCrops(data, result);
+        return applyHarvest(data, null, result);
+    }
+    
+    /**
+     * Harvest all ready crops with XP and money rewards
+     * @return Total number of items harvested
+     */
+    public static int harvestAllWithRewards(PlayerData data, ServerPlayer player) {
+        // Server thread only, so one reusable result is enough
+        collectReadyCrops(data, harvestScratch);
+        return applyHarvest(data, player, harvestScratch);
+    }
+    
+    /**
+     * Plots harvested from an estate whose effects have not been applied yet.
+     * Yields are summed per crop type and plots are kept as ranges of
+     * identical plots, so collecting into a reused result allocates nothing
+     * once warm. Rescheduling the harvested plots in {@link #applyHarvest}
+     * still creates ready queue entries.
+     */
+    public static final class HarvestResult implements CropField.HarvestSink {
+        private final int[] yields = new int[CROP_TYPES.length]; // By CropType ordinal
+        private int[] rangeStarts = new int[16];
+        private int[] rangeCounts = new int[16];
+        private int rangeCount;
+        private int plotCount;
+        private int totalItems;
+
+        public int getPlotCount() { return plotCount; }
+        public int getTotalItems() { return totalItems; }
 
-        for (int i = 0; i < data.getUnlockedCropSlots(); i++) {
-            CropPlot plot = data.getCropPlot(i);
-            if (plot != null && plot.isReady()) {
-                ItemStack result = harvestCrop(data, i);
-                if (!result.isEmpty()) {
-                    harvested.add(result);
-                    totalHarvested += result.getCount();
-                }
+        @Override
+        public void accept(int from, int count, CropType type, int yield) {
+            if (rangeCount == rangeStarts.length) {
+                rangeStarts = Arrays.copyOf(rangeStarts, rangeCount * 2);
+                rangeCounts = Arrays.copyOf(rangeCounts, rangeCount * 2);
             }
+            rangeStarts[rangeCount] = from;
+            rangeCounts[rangeCount++] = count;
+            yields[type.ordinal()] += yield;
+            plotCount += count;
+            totalItems += yield;
         }
 
-        // Add all harvested to crop output buffer
-        for (ItemStack stack : harvested) {
-            data.addToCropOutput(stack);
+        private void clear() {
+            Arrays.fill(yields, 0);
+            rangeCount = 0;
+            plotCount = 0;
+            totalItems = 0;
         }
-        
-        return totalHarvested;
     }
     
     /**
-     * Harvest all ready crops with XP and money rewards
-     * @return Total number of items harvested
+     * Harvest every ready plot of an estate into the result, touching
+     * nothing but the estate's plots. Safe to run off the server thread as
+     * long as nothing else uses this estate; pass the result to
+     * {@link #applyHarvest} on the server thread.
      */
-    public static int harvestAllWithRewards(PlayerData data, ServerPlayer player) {
-        List<ItemStack> harvested = new ArrayList<>();
-        int totalHarvested = 0;
-        int plotsHarvested = 0;
+    public static void collectReadyCrops(PlayerData data, HarvestResult result) {
+        result.clear();
 
-        for (int i = 0; i < data.getUnlockedCropSlots(); i++) {
-            CropPlot plot = data.getCropPlot(i);
-            if (plot != null && plot.isReady()) {
-                ItemStack result = harvestCrop(data, i);
-                if (!result.isEmpty()) {
-                    harvested.add(result);
-                    totalHarvested += result.getCount();
-                    plotsHarvested++;
-                }
-            }
+        data.getCropField().harvestReady(data.getUnlockedCropSlots(), PocketEstate.getGameTime(), false, result);
+    }
+    
+    /**
+     * Journal and reschedule the harvested plots, store the crops and
+     * grant XP and money once for the whole sweep (server thread only)
+     * @return Total number of items harvested
+     */
+    public static int applyHarvest(PlayerData data, ServerPlayer player, HarvestResult result) {
+        for (int i = 0; i < result.rangeCount; i++) {
+            data.markPlotsChanged(result.rangeStarts[i], result.rangeCounts[i]);
         }
+        data.updateReadiness();
 
-        // Add all harvested to crop output buffer
-        for (ItemStack stack : harvested) {
-            data.addToCropOutput(stack);
+        // One crop output entry per crop type
+        for (int ordinal = 0; ordinal < result.yields.length; ordinal++) {
+            if (result.yields[ordinal] > 0) {
+                data.addToCropOutput(CROP_TYPES[ordinal].getYieldItem(), result.yields[ordinal]);
+            }
         }
         
         // Award XP and money based on plots harvested
+        int plotsHarvested = result.plotCount;
         if (plotsHarvested > 0 && player != null) {
             int totalXp = plotsHarvested * XP_PER_HARVEST;
             long totalMoney = (long) plotsHarvested * MONEY_PER_HARVEST;
@@ -219,49 +302,28 @@ public class VirtualCropManager {
                 SoundEvents.CROP_BREAK, SoundSource.BLOCKS, 0.7f, 1.0f);
         }
         
-        return totalHarvested;
+        return result.totalItems;
     }
 
     /**
      * Get the number of ready crops
      */
     public static int getReadyCropCount(PlayerData data) {
-        int count = 0;
-        for (int i = 0; i < data.getUnlockedCropSlots(); i++) {
-            CropPlot plot = data.getCropPlot(i);
-            if (plot != null && plot.isReady()) {
-                count++;
-            }
-        }
-        return count;
+        return data.getCropField().countReady(data.getUnlockedCropSlots(), PocketEstate.getGameTime());
     }
     
     /**
      * Get the number of empty (unlocked) plots
      */
     public static int getEmptyPlotCount(PlayerData data) {
-        int count = 0;
-        for (int i = 0; i < data.getUnlockedCropSlots(); i++) {
-            CropPlot plot = data.getCropPlot(i);
-            if (plot != null && plot.getCropType() == null) {
-                count++;
-            }
-        }
-        return count;
+        return data.getCropField().countEmpty(data.getUnlockedCropSlots());
     }
     
     /**
      * Get the number of growing crops
      */
     public static int getGrowingCropCount(PlayerData data) {
-        int count = 0;
-        for (int i = 0; i < data.getUnlockedCropSlots(); i++) {
-            CropPlot plot = data.getCropPlot(i);
-            if (plot != null && plot.getCropType() != null && !plot.isReady()) {
-                count++;
-            }
-        }
-        return count;
+        return data.getCropField().countGrowing(data.getUnlockedCropSlots(), PocketEstate.getGameTime());
     }
     
     /**
@@ -269,33 +331,17 @@ public class VirtualCropManager {
      * @return Number of crops affected
      */
     public static int applyBonemealBoost(PlayerData data) {
-        int affected = 0;
-        
-        for (int i = 0; i < data.getUnlockedCropSlots(); i++) {
-            CropPlot plot = data.getCropPlot(i);
-            if (plot != null && plot.getCropType() != null && !plot.isReady()) {
-                // Boost growth by 25% of remaining time
-                int remaining = plot.getGrowthTimeRemaining();
-                int boost = Math.max(1, remaining / 4);
-                plot.boostGrowth(boost);
-                affected++;
-            }
-        }
-        
-        return affected;
+        // Boost growth by 25% of remaining time, a run of identical plots at a time
+        int boosted = data.getCropField().boostGrowing(data.getUnlockedCropSlots(), PocketEstate.getGameTime(),
+            data::markPlotsChanged);
+        data.updateReadiness();
+        return boosted;
     }
     
     /**
-     * Check if all crops are ready (for notification purposes)
+     * Check if all of this estate's planted crops are ready, as of its last readiness update
      */
     public static boolean checkAllCropsReady(PlayerData data) {
-        return allCropsReadyNotified;
-    }
-    
-    /**
-     * Reset the notification flag
-     */
-    public static void resetNotification() {
-        allCropsReadyNotified = false;
+        return data.getReadiness() == CropReadyEvents.Readiness.ALL_READY;
     }
 }
@@ -1,13 +1,17 @@
 package com.pocketestate.farm;
 
 import com.pocketestate.PocketEstate;
+import com.pocketestate.config.EstateConfig;
 import com.pocketestate.data.PlayerData;
 import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.item.ItemStack;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -16,8 +20,8 @@ import java.util.UUID;
 public class VirtualMobManager {
     
     /**
-     * Process mob production for all players
-     * Called periodically from the main tick handler
+     * Process mob production for all players at once
+     * (the server tick spreads this per player via {@link EstateTickScheduler})
      */
     public static void processProduction(MinecraftServer server) {
         if (PocketEstate.dataManager == null) return;
@@ -34,15 +38,35 @@ public class VirtualMobManager {
         if (PocketEstate.dataManager == null) return;
         
         PlayerData data = PocketEstate.dataManager.getPlayerData(player.getUUID());
-        
+        data.setLastActiveTick(PocketEstate.getGameTime());
+        Set<PenType> producedBy = EnumSet.noneOf(PenType.class);
+        List<ItemStack> drops = produce(data, producedBy);
+        data.addPenProduction(producedBy, drops);
+    }
+    
+    /**
+     * Run the production cycles due for every pen of an estate: one when
+     * called on schedule, more if the estate clock jumped further than a
+     * production interval since the last call (applied in closed form).
+     * Touches only the estate's pens, so it may run on a worker thread;
+     * the drops are returned, and the pens that produced collected into
+     * {@code producedBy}, for the server thread to journal with
+     * {@link PlayerData#addPenProduction}.
+     */
+    public static List<ItemStack> produce(PlayerData data, Collection<PenType> producedBy) {
+        List<ItemStack> drops = new ArrayList<>();
+        long now = PocketEstate.getGameTime();
+        long last = data.getLastProductionTick();
+        long cycles = last > 0 ? Math.max(1, (now - last) / Math.max(1, EstateConfig.PRODUCTION_INTERVAL)) : 1;
+        data.setLastProductionTick(now);
+
         for (MobPen pen : data.getMobPens().values()) {
             if (pen.canProduce()) {
-                List<ItemStack> produced = pen.produce();
-                for (ItemStack stack : produced) {
-                    data.addToOutput(stack);
-                }
+                producedBy.add(pen.getPenType()); // Fodder and tool durability are consumed even without drops
+                drops.addAll(cycles == 1 ? pen.produce() : pen.produceCycles(cycles));
             }
         }
+        return drops;
     }
     
     /**
@@ -82,7 +106,11 @@ public class VirtualMobManager {
         
         if (pen == null) return 0;
         
-        return pen.addFodder(amount);
+        int added = pen.addFodder(amount);
+        if (added > 0) {
+            data.markPenChanged(penType);
+        }
+        return added;
     }
     
     /**
@@ -101,6 +129,7 @@ public class VirtualMobManager {
         if (!tool.isEmpty()) {
             pen.setTool(tool);
         }
+        data.markPenChanged(penType);
         
         return oldTool;
     }
@@ -117,7 +146,9 @@ public class VirtualMobManager {
         
         if (pen == null) return false;
         
-        return pen.investIronBlock();
+        boolean constructed = pen.investIronBlock();
+        data.markPenChanged(PenType.IRON_GOLEM);
+        return constructed;
     }
     
     /**
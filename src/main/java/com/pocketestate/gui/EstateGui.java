@@ -1,5 +1,6 @@
 package com.pocketestate.gui;
 
+import com.pocketestate.PocketEstate;
 import com.pocketestate.currency.CurrencyManager;
 import com.pocketestate.data.EstateManager;
 import com.pocketestate.farm.VirtualMobManager;
@@ -48,6 +49,9 @@ public class EstateGui extends SimpleGui {
     }
     
     private void buildGui() {
+        // Opening or using the GUI brings an idle estate back to full fidelity
+        PocketEstate.dataManager.getPlayerData(player.getUUID()).markInteraction();
+        
         // Clear the GUI
         for (int i = 0; i < 54; i++) {
             setSlot(i, new GuiElementBuilder(Items.AIR));
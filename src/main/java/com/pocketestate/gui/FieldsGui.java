@@ -46,10 +46,13 @@ public class FieldsGui extends SimpleGui {
     }
 
     private int getMaxPages() {
-        return (int) Math.ceil((double) PlayerData.MAX_CROP_PLOTS / PLOTS_PER_PAGE);
+        return (int) Math.ceil((double) getData().getMaxCropPlots() / PLOTS_PER_PAGE);
     }
 
     private void buildGui() {
+        // Opening or using the GUI brings an idle estate back to full fidelity
+        getData().markInteraction();
+
         // Clear all slots
         for (int i = 0; i < 54; i++) {
             setSlot(i, new GuiElementBuilder(Items.AIR));
@@ -87,7 +90,7 @@ public class FieldsGui extends SimpleGui {
         // Info display
         setSlot(2, new GuiElementBuilder(Items.OAK_SIGN)
             .setName(Component.literal("§e§lFarm Stats"))
-            .addLoreLine(Component.literal("§7Plots: §a" + data.getUnlockedCropSlots() + "§7/§e" + PlayerData.MAX_CROP_PLOTS))
+            .addLoreLine(Component.literal("§7Plots: §a" + data.getUnlockedCropSlots() + "§7/§e" + data.getMaxCropPlots()))
             .addLoreLine(Component.literal("§7Growing: §e" + growingCrops))
             .addLoreLine(Component.literal("§7Ready: §a" + readyCrops))
             .addLoreLine(Component.literal("§7Empty: §7" + emptyPlots))
@@ -204,7 +207,7 @@ public class FieldsGui extends SimpleGui {
                     int added = Math.min(data.getCropOutput().size(), 5);
                     for (int i = 0; i < added; i++) {
                         if (!data.getCropOutput().isEmpty()) {
-                            data.getCropOutput().remove(0);
+                            data.removeFromCropOutput(0);
                             data.addCompostResource(1);
                         }
                     }
@@ -235,7 +238,7 @@ public class FieldsGui extends SimpleGui {
                 int bought = 0;
                 for (int i = 0; i < toBuy; i++) {
                     int cost = 100 + (data.getUnlockedCropSlots() * 10);
-                    if (data.getBalance() >= cost && data.getUnlockedCropSlots() < PlayerData.MAX_CROP_PLOTS) {
+                    if (data.getBalance() >= cost && data.getUnlockedCropSlots() < data.getMaxCropPlots()) {
                         data.addBalance(-cost);
                         data.setUnlockedCropSlots(data.getUnlockedCropSlots() + 1);
                         bought++;
@@ -278,7 +281,7 @@ public class FieldsGui extends SimpleGui {
             int plotIndex = startSlot + i;
             int slot = plotSlots[i];
 
-            if (plotIndex >= PlayerData.MAX_CROP_PLOTS) {
+            if (plotIndex >= data.getMaxCropPlots()) {
                 setSlot(slot, new GuiElementBuilder(Items.GRAY_STAINED_GLASS_PANE)
                     .setName(Component.literal(" "))
                     .hideTooltip()
@@ -352,6 +355,7 @@ public class FieldsGui extends SimpleGui {
                         .setCallback((index, type, action) -> {
                             if (type.isRight) {
                                 plot.clear();
+                                data.markPlotChanged(plotIdx);
                                 player.sendSystemMessage(Component.literal("§e§l[FARM] §rCleared plot #" + (plotIdx + 1)));
                                 player.playSound(SoundEvents.GRASS_BREAK, 0.5f, 1.0f);
                                 buildGui();
@@ -469,14 +473,7 @@ public class FieldsGui extends SimpleGui {
                         player.playSound(SoundEvents.CROP_PLANTED, 0.5f, 1.0f);
                     } else {
                         // Plant all - FREE!
-                        int planted = 0;
-                        for (int i = 0; i < data.getUnlockedCropSlots(); i++) {
-                            CropPlot plot = data.getCropPlot(i);
-                            if (plot != null && plot.getCropType() == null) {
-                                plot.plant(crop);
-                                planted++;
-                            }
-                        }
+                        int planted = VirtualCropManager.plantAll(data, crop, Integer.MAX_VALUE);
                         if (planted > 0) {
                             player.sendSystemMessage(Component.literal("§a§l[FARM] §rPlanted §e" + crop.getDisplayName() + "§r in §e" + planted + " plots§r!"));
                             player.playSound(SoundEvents.CROP_PLANTED, 0.7f, 1.0f);
@@ -293,6 +293,7 @@ public class PensGui extends SimpleGui {
                     .addLoreLine(Component.literal("§cClick to unequip"))
                     .setCallback((index, type, action) -> {
                         ItemStack removed = pen.removeTool();
+                        data.markPenChanged(pen.getPenType());
                         if (!removed.isEmpty()) {
                             player.addItem(removed);
                             player.sendSystemMessage(Component.literal(
@@ -321,6 +322,7 @@ public class PensGui extends SimpleGui {
                 .setCallback((index, type, action) -> {
                     if (tryConsumeItem(Items.IRON_BLOCK, 1)) {
                         pen.investIronBlock();
+                        data.markPenChanged(PenType.IRON_GOLEM);
                         if (pen.isConstructed()) {
                             player.sendSystemMessage(Component.literal(
                                 "§a§l[FOUNDRY] §rIron Foundry is now operational!"));
@@ -393,6 +395,7 @@ public class PensGui extends SimpleGui {
         
         if (consumed > 0) {
             pen.addFodder(consumed);
+            data.markPenChanged(pen.getPenType());
         }
         
         return consumed;
@@ -3,6 +3,7 @@ package com.pocketestate.gui;
 import com.pocketestate.PocketEstate;
 import com.pocketestate.config.SellPrices;
 import com.pocketestate.currency.CurrencyManager;
+import com.pocketestate.data.PlayerData;
 import com.pocketestate.economy.EconomyIntegration;
 import eu.pb4.sgui.api.elements.GuiElementBuilder;
 import eu.pb4.sgui.api.gui.SimpleGui;
@@ -203,6 +204,10 @@ public class SellGui extends SimpleGui {
         return PocketEstate.dataManager.getPlayerData(player.getUUID()).getOutputBuffer();
     }
     
+    private PlayerData getData() {
+        return PocketEstate.dataManager.getPlayerData(player.getUUID());
+    }
+    
     private void sellSingleItem(int index) {
         List<ItemStack> buffer = getOutputBuffer();
         if (index < 0 || index >= buffer.size()) return;
@@ -212,7 +217,7 @@ public class SellGui extends SimpleGui {
         
         if (value > 0) {
             EconomyIntegration.addBalance(player.getUUID(), value);
-            buffer.remove(index);
+            getData().removeFromOutput(index);
             
             player.sendSystemMessage(Component.literal("§a§l[SELL] §rSold §e" + 
                 stack.getCount() + "x " + stack.getHoverName().getString() + 
@@ -244,7 +249,7 @@ public class SellGui extends SimpleGui {
         
         if (totalValue > 0) {
             EconomyIntegration.addBalance(player.getUUID(), totalValue);
-            buffer.clear();
+            getData().clearOutput();
             
             player.sendSystemMessage(Component.literal("§a§l[SELL] §rSold §e" + 
                 totalItems + " items§r for §a" + CurrencyManager.format(totalValue) + "§r!"));
@@ -0,0 +1,91 @@
+package com.pocketestate.data;
+
+import com.pocketestate.PocketEstate;
+import com.pocketestate.config.EstateConfig;
+import com.pocketestate.farm.ManualEstateClock;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The compost bin is settled in closed form from game time; it must end
+ * up exactly where stepping it once per sweep (the old tickCompost) would
+ */
+class CompostTest {
+    private ManualEstateClock clock;
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @BeforeEach
+    void installClock() {
+        clock = new ManualEstateClock(100_000);
+        PocketEstate.setClock(clock);
+    }
+
+    @AfterEach
+    void removeClock() {
+        PocketEstate.setClock(null);
+    }
+
+    @Test
+    void closedFormMatchesStepping() {
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            int progress = random.nextInt(100);
+            int resources = random.nextInt(40);
+            int sweeps = random.nextInt(3000);
+
+            PlayerData data = new PlayerData();
+            data.setOwnerOnline(true);
+            data.restoreCompost(progress, resources, 0, clock.now());
+            clock.advance((long) sweeps * EstateConfig.CROP_GROWTH_INTERVAL);
+
+            // Reference: one step per sweep
+            int bonemeal = 0;
+            for (int step = 0; step < sweeps; step++) {
+                progress += 1 + Math.min(resources, 10);
+                if (progress >= 100) {
+                    bonemeal++;
+                    progress = 0;
+                    if (resources > 0) resources--;
+                }
+            }
+
+            String state = "case " + i + " after " + sweeps + " sweeps";
+            assertEquals(progress, data.getCompostProgress(), state);
+            assertEquals(resources, data.getCompostResources(), state);
+            assertEquals(bonemeal, data.getStoredBonemeal(), state);
+        }
+    }
+
+    @Test
+    void settlingInPiecesMatchesSettlingOnce() {
+        PlayerData once = new PlayerData();
+        PlayerData pieces = new PlayerData();
+        once.setOwnerOnline(true);
+        pieces.setOwnerOnline(true);
+        once.addCompostResource(25);
+        pieces.addCompostResource(25);
+
+        Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            clock.advance(random.nextInt(20) * (long) EstateConfig.CROP_GROWTH_INTERVAL + random.nextInt(50));
+            pieces.settleCompost();
+        }
+
+        assertEquals(once.getCompostProgress(), pieces.getCompostProgress());
+        assertEquals(once.getCompostResources(), pieces.getCompostResources());
+        assertEquals(once.getStoredBonemeal(), pieces.getStoredBonemeal());
+    }
+}
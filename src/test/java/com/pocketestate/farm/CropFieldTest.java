@@ -0,0 +1,93 @@
+package com.pocketestate.farm;
+
+import com.pocketestate.PocketEstate;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The one-pass bonemeal boost must leave every plot where boosting the
+ * growing plots one view at a time (the old per-plot loop) would
+ */
+class CropFieldTest {
+    private static final int SIZE = 500;
+    private ManualEstateClock clock;
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @BeforeEach
+    void installClock() {
+        clock = new ManualEstateClock(1_000_000);
+        PocketEstate.setClock(clock);
+    }
+
+    @AfterEach
+    void removeClock() {
+        PocketEstate.setClock(null);
+    }
+
+    @Test
+    void packedBoostMatchesPerPlotBoost() {
+        checkBoost(new PackedCropField(SIZE));
+    }
+
+    @Test
+    void runLengthBoostMatchesPerPlotBoost() {
+        checkBoost(new RunLengthCropField(SIZE));
+    }
+
+    private void checkBoost(CropField field) {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            fillRandomly(field, random);
+            int limit = 1 + random.nextInt(SIZE);
+            long now = clock.now();
+
+            CropField expected = field.copy();
+            int expectedBoosted = 0;
+            for (int i = 0; i < limit; i++) {
+                CropPlot plot = expected.plot(i);
+                if (plot.isPlanted() && !plot.isReady()) {
+                    plot.boostGrowth(Math.max(1, plot.getGrowthTimeRemaining() / 4));
+                    expectedBoosted++;
+                }
+            }
+
+            int[] reported = new int[1];
+            int boosted = field.boostGrowing(limit, now, (from, count) -> reported[0] += count);
+
+            assertEquals(expectedBoosted, boosted, "round " + round);
+            assertEquals(boosted, reported[0], "round " + round);
+            for (int i = 0; i < SIZE; i++) {
+                assertEquals(expected.get(i), field.get(i), "round " + round + " plot " + i);
+            }
+            clock.advance(random.nextInt(400));
+        }
+    }
+
+    /**
+     * Overwrite the field with random runs of empty, growing, ready and not yet started plots
+     */
+    private void fillRandomly(CropField field, Random random) {
+        CropType[] types = CropType.values();
+        long now = clock.now();
+        for (int from = 0; from < SIZE; ) {
+            int count = Math.min(SIZE - from, 1 + random.nextInt(30));
+            CropType type = random.nextInt(4) == 0 ? null : types[random.nextInt(types.length)];
+            long growthStart = type == null ? 0 : now - random.nextInt(2 * type.getGrowthTime()) + random.nextInt(100);
+            field.setRange(from, count, type, growthStart, random.nextInt(5));
+            from += count;
+        }
+    }
+}
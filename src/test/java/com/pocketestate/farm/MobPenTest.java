@@ -0,0 +1,57 @@
+package com.pocketestate.farm;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many pen cycles at once must use up fodder and produce fixed drops
+ * exactly like running the cycles one by one
+ */
+class MobPenTest {
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @Test
+    void cyclesAtOnceMatchCyclesOneByOne() {
+        // 640 fodder at 5 per cycle lasts 128 cycles, so 200 requested cycles run out of fodder
+        for (long cycles : new long[] {1, 7, 128, 200}) {
+            MobPen stepped = new MobPen(PenType.CHICKEN);
+            MobPen closed = new MobPen(PenType.CHICKEN);
+            stepped.addFodder(640);
+            closed.addFodder(640);
+
+            List<ItemStack> steppedDrops = new ArrayList<>();
+            for (long i = 0; i < cycles; i++) {
+                steppedDrops.addAll(stepped.produce());
+            }
+            List<ItemStack> closedDrops = closed.produceCycles(cycles);
+
+            assertEquals(stepped.getFodderAmount(), closed.getFodderAmount(), cycles + " cycles");
+            // Chicken and egg always drop exactly one per cycle; feathers are random per cycle
+            assertEquals(count(steppedDrops, Items.CHICKEN), count(closedDrops, Items.CHICKEN), cycles + " cycles");
+            assertEquals(count(steppedDrops, Items.EGG), count(closedDrops, Items.EGG), cycles + " cycles");
+        }
+    }
+
+    private static long count(List<ItemStack> stacks, Item item) {
+        long count = 0;
+        for (ItemStack stack : stacks) {
+            if (stack.is(item)) count += stack.getCount();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,110 @@
+package com.pocketestate.farm;
+
+import com.pocketestate.PocketEstate;
+import com.pocketestate.config.EstateConfig;
+import com.pocketestate.data.PlayerData;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Offline catch-up driven by a {@link ManualEstateClock}: the owner
+ * leaves, the clock skips hours ahead, and joining credits at most
+ * {@link EstateConfig#MAX_OFFLINE_CATCHUP} of pen and compost time
+ */
+class OfflineCatchUpTest {
+    private ManualEstateClock clock;
+
+    @BeforeAll
+    static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    @BeforeEach
+    void installClock() {
+        clock = new ManualEstateClock(100_000);
+        PocketEstate.setClock(clock);
+    }
+
+    @AfterEach
+    void removeClock() {
+        PocketEstate.setClock(null);
+    }
+
+    /**
+     * A fresh estate with a fed chicken coop whose owner just left
+     */
+    private PlayerData leftEstate() {
+        PlayerData data = new PlayerData();
+        data.setOwnerOnline(true);
+        data.unlockMobPen(PenType.CHICKEN);
+        data.getMobPen(PenType.CHICKEN).addFodder(640);
+
+        // Same steps as DataManager.onPlayerLeave
+        data.setLastActiveTick(clock.now());
+        data.settleCompost();
+        data.setOwnerOnline(false);
+        return data;
+    }
+
+    @Test
+    void joinCreditsAtMostTheCap() {
+        PlayerData data = leftEstate();
+        clock.advance(3 * EstateConfig.MAX_OFFLINE_CATCHUP);
+
+        OfflineCatchUp.catchUp(data, clock.now());
+        data.setOwnerOnline(true);
+
+        long cycles = EstateConfig.MAX_OFFLINE_CATCHUP / EstateConfig.PRODUCTION_INTERVAL;
+        MobPen coop = data.getMobPen(PenType.CHICKEN);
+        assertEquals(640 - cycles * PenType.CHICKEN.getFodderPerCycle(), coop.getFodderAmount());
+        // Chicken and egg drop once per cycle; feathers (0-2) use the expected value
+        assertEquals(cycles, outputCount(data, Items.CHICKEN));
+        assertEquals(cycles, outputCount(data, Items.EGG));
+        assertEquals(cycles, outputCount(data, Items.FEATHER));
+
+        // One compost step per crop interval, with no resources 100 steps per bonemeal
+        long sweeps = EstateConfig.MAX_OFFLINE_CATCHUP / EstateConfig.CROP_GROWTH_INTERVAL;
+        assertEquals(sweeps / 100, data.getStoredBonemeal());
+        assertEquals(sweeps % 100, data.getCompostProgress());
+
+        // Back online, time counts normally again
+        clock.advance(100L * EstateConfig.CROP_GROWTH_INTERVAL);
+        assertEquals(sweeps / 100 + 1, data.getStoredBonemeal());
+    }
+
+    @Test
+    void readingWhileOfflineCreditsNoMoreThanJoining() {
+        PlayerData data = leftEstate();
+        clock.advance(3 * EstateConfig.MAX_OFFLINE_CATCHUP);
+
+        // Loaded for some other reason while the owner is away: no pen output, compost stops at the cap
+        long sweeps = EstateConfig.MAX_OFFLINE_CATCHUP / EstateConfig.CROP_GROWTH_INTERVAL;
+        assertEquals(sweeps / 100, data.getStoredBonemeal());
+        assertEquals(0, outputCount(data, Items.EGG));
+
+        clock.advance(EstateConfig.MAX_OFFLINE_CATCHUP);
+        assertEquals(sweeps / 100, data.getStoredBonemeal());
+
+        OfflineCatchUp.catchUp(data, clock.now());
+        assertEquals(sweeps / 100, data.getStoredBonemeal());
+        assertEquals(EstateConfig.MAX_OFFLINE_CATCHUP / EstateConfig.PRODUCTION_INTERVAL, outputCount(data, Items.EGG));
+    }
+
+    private static long outputCount(PlayerData data, Item item) {
+        long count = 0;
+        for (ItemStack stack : data.getOutputBuffer()) {
+            if (stack.is(item)) count += stack.getCount();
+        }
+        return count;
+    }
+}